@@ -0,0 +1,132 @@
+package slider;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+
+/**
+ * Measures the time to first paint of a range slider in a cold JVM: from
+ * {@code new RangeSlider()}, once the L&F is set, to the end of its first
+ * paint into an image.
+ * <p>
+ * Each run is a fresh JVM started with the same class path and options as
+ * this one; the median of the runs is printed for each L&F named. Run with
+ * {@code -Djava.awt.headless=true}, for example:
+ *
+ * <pre>
+ * java -Djava.awt.headless=true -cp classes slider.FirstPaintBenchmark 7 Metal Nimbus
+ * </pre>
+ *
+ * @author johnchen902
+ */
+public class FirstPaintBenchmark {
+
+	private static final String CHILD = "--child";
+
+	public static void main(String[] args) throws Exception {
+		if (args.length == 2 && args[0].equals(CHILD)) {
+			System.out.println(measure(args[1]));
+			return;
+		}
+		if (args.length < 2) {
+			System.err.println("usage: FirstPaintBenchmark runs laf...");
+			System.exit(2);
+		}
+		int runs = Integer.parseInt(args[0]);
+		for (String laf : Arrays.copyOfRange(args, 1, args.length)) {
+			double[] times = new double[runs];
+			for (int i = 0; i < runs; i++)
+				times[i] = Double.parseDouble(runChild(
+						FirstPaintBenchmark.class, CHILD, laf));
+			Arrays.sort(times);
+			System.out.printf("%-8s median %6.1f ms (min %.1f, max %.1f)%n",
+					laf, times[runs / 2], times[0], times[runs - 1]);
+		}
+	}
+
+	/**
+	 * Runs the {@code main} of {@code mainClass} with {@code args} in a fresh
+	 * JVM with the same class path and options as this one.
+	 *
+	 * @return the last line it printed
+	 */
+	static String runChild(Class<?> mainClass, String... args)
+			throws IOException, InterruptedException {
+		List<String> command = new ArrayList<>();
+		command.add(System.getProperty("java.home") + File.separator + "bin"
+				+ File.separator + "java");
+		command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(mainClass.getName());
+		command.addAll(Arrays.asList(args));
+		Process process = new ProcessBuilder(command).redirectErrorStream(
+				true).start();
+		String last = null;
+		try (BufferedReader in = new BufferedReader(new InputStreamReader(
+				process.getInputStream()))) {
+			for (String line; (line = in.readLine()) != null;)
+				last = line;
+		}
+		if (process.waitFor() != 0)
+			throw new IllegalStateException("child failed: " + last);
+		return last;
+	}
+
+	/**
+	 * Sets the L&F named {@code laf}, then times the creation and first
+	 * paint of a slider on the event dispatch thread.
+	 *
+	 * @return the time in milliseconds
+	 */
+	private static double measure(final String laf) throws Exception {
+		final double[] result = new double[1];
+		SwingUtilities.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				setLookAndFeel(laf);
+				long start = System.nanoTime();
+				RangeSlider slider = new RangeSlider();
+				slider.setSize(slider.getPreferredSize());
+				BufferedImage image = new BufferedImage(slider.getWidth(),
+						slider.getHeight(), BufferedImage.TYPE_INT_ARGB);
+				Graphics2D g = image.createGraphics();
+				slider.paint(g);
+				g.dispose();
+				result[0] = (System.nanoTime() - start) / 1e6;
+			}
+		});
+		return result[0];
+	}
+
+	/**
+	 * Sets the installed L&F named {@code name}, such as "Metal".
+	 *
+	 * @throws IllegalArgumentException
+	 *             if no such L&F is installed
+	 */
+	static void setLookAndFeel(String name) {
+		for (UIManager.LookAndFeelInfo info : UIManager
+				.getInstalledLookAndFeels()) {
+			if (info.getName().equals(name)) {
+				try {
+					UIManager.setLookAndFeel(info.getClassName());
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+				return;
+			}
+		}
+		throw new IllegalArgumentException("no L&F named " + name);
+	}
+}
@@ -0,0 +1,99 @@
+package slider;
+
+import javax.swing.JComponent;
+import javax.swing.JSlider;
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+
+/**
+ * Measures the heap retained per slider: a {@code JSlider}, a range slider,
+ * and a compact range slider (see {@link BasicRangeSliderUI}). Each kind is
+ * measured in a fresh JVM by creating many sliders, sized but never shown,
+ * and comparing the heap used after garbage collection before and after.
+ * Run with a serial collector for steadier figures, for example:
+ *
+ * <pre>
+ * java -Djava.awt.headless=true -XX:+UseSerialGC -cp classes slider.FootprintBenchmark 20000 Metal
+ * </pre>
+ *
+ * @author johnchen902
+ */
+public class FootprintBenchmark {
+
+	private static final String CHILD = "--child";
+	private static final String[] KINDS = { "JSlider", "RangeSlider",
+			"compact" };
+
+	public static void main(String[] args) throws Exception {
+		if (args.length == 4 && args[0].equals(CHILD)) {
+			System.out.println(measure(args[1], Integer.parseInt(args[2]),
+					args[3]));
+			return;
+		}
+		if (args.length != 2) {
+			System.err.println("usage: FootprintBenchmark count laf");
+			System.exit(2);
+		}
+		for (String kind : KINDS)
+			System.out.printf("%-12s %6s bytes per slider%n", kind,
+					FirstPaintBenchmark.runChild(FootprintBenchmark.class,
+							CHILD, kind, args[0], args[1]));
+	}
+
+	/**
+	 * Creates {@code count} sliders of {@code kind} under the L&F named
+	 * {@code laf}.
+	 *
+	 * @return the heap retained per slider, in bytes
+	 */
+	private static long measure(final String kind, int count,
+			final String laf) throws Exception {
+		final JComponent[] sliders = new JComponent[count];
+		SwingUtilities.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				FirstPaintBenchmark.setLookAndFeel(laf);
+				if (kind.equals("compact"))
+					UIManager.put("RangeSlider.compact", Boolean.TRUE);
+				// Load and initialize everything shared before measuring.
+				create(kind);
+			}
+		});
+		long before = usedHeap();
+		SwingUtilities.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 0; i < sliders.length; i++)
+					sliders[i] = create(kind);
+			}
+		});
+		long after = usedHeap();
+		if (sliders[count - 1] == null)
+			throw new AssertionError();
+		return (after - before) / count;
+	}
+
+	private static JComponent create(String kind) {
+		JComponent slider = kind.equals("JSlider") ? new JSlider()
+				: new RangeSlider();
+		slider.setSize(200, 40);
+		return slider;
+	}
+
+	/**
+	 * Returns the heap used once collecting garbage no longer frees any.
+	 */
+	static long usedHeap() throws InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+		long used = Long.MAX_VALUE;
+		for (int i = 0; i < 20; i++) {
+			System.gc();
+			Thread.sleep(20);
+			long now = runtime.totalMemory() - runtime.freeMemory();
+			if (now >= used)
+				break;
+			used = now;
+		}
+		return used;
+	}
+}
@@ -0,0 +1,152 @@
+package slider;
+
+import java.awt.Graphics2D;
+import java.awt.GridLayout;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Hashtable;
+import java.util.List;
+
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.plaf.metal.DefaultMetalTheme;
+import javax.swing.plaf.metal.MetalLookAndFeel;
+import javax.swing.plaf.metal.OceanTheme;
+
+/**
+ * Measures switching the L&F of a panel of labelled range sliders back and
+ * forth between two L&Fs, either the usual way, with
+ * {@link SwingUtilities#updateComponentTreeUI}, or with
+ * {@link RangeSlider#updateUIs}. Each switch is timed up to the end of the
+ * updates, and again to the end of the layout and painting of the whole
+ * panel into an image. The medians of the switches are printed for each
+ * way, measured in a fresh JVM. For example:
+ *
+ * <pre>
+ * java -Djava.awt.headless=true -cp classes slider.LafSwitchBenchmark 5000 20 Metal Nimbus
+ * </pre>
+ *
+ * With {@code shared} after the L&Fs, all the sliders share one label
+ * table. A switch between two themes of Metal, which keeps the delegate
+ * class, is given as {@code Metal:Ocean Metal:Steel}.
+ *
+ * @author johnchen902
+ */
+public class LafSwitchBenchmark {
+
+	private static final String CHILD = "--child";
+	private static final String SHARED = "shared";
+
+	public static void main(String[] args) throws Exception {
+		if (args.length == 7 && args[0].equals(CHILD)) {
+			child(args);
+			return;
+		}
+		if (args.length != 4 && !(args.length == 5 && args[4].equals(SHARED))) {
+			System.err.println("usage: LafSwitchBenchmark count switches"
+					+ " laf laf [" + SHARED + "]");
+			System.exit(2);
+		}
+		String labels = args.length == 5 ? SHARED : "own";
+		for (String way : new String[] { "tree", "bulk" })
+			System.out.println(FirstPaintBenchmark.runChild(
+					LafSwitchBenchmark.class, CHILD, way, args[0], args[1],
+					args[2], args[3], labels));
+	}
+
+	/**
+	 * Measures one way in this JVM, so that neither way runs with the other
+	 * having warmed it up.
+	 */
+	private static void child(String[] args) throws Exception {
+		final boolean bulk = args[1].equals("bulk");
+		final int count = Integer.parseInt(args[2]);
+		final int switches = Integer.parseInt(args[3]);
+		final String[] lafs = { args[4], args[5] };
+		final boolean shared = args[6].equals(SHARED);
+		SwingUtilities.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				double[][] times = measure(count, switches, lafs, shared,
+						bulk);
+				Arrays.sort(times[0]);
+				Arrays.sort(times[1]);
+				System.out.printf("%-21s median update %6.1f ms,"
+						+ " with layout and paint %6.1f ms%n",
+						bulk ? "RangeSlider.updateUIs"
+								: "updateComponentTreeUI",
+						times[0][switches / 2], times[1][switches / 2]);
+			}
+		});
+	}
+
+	/**
+	 * Builds a panel of {@code count} sliders, all with the same label table
+	 * if {@code shared}, and switches its L&F {@code switches} times, after
+	 * two switches to warm up.
+	 *
+	 * @return the time of each switch, in milliseconds, up to the end of the
+	 *         updates of the UIs and up to the end of the painting
+	 */
+	private static double[][] measure(int count, int switches, String[] lafs,
+			boolean shared, boolean bulk) {
+		setLookAndFeel(lafs[1]);
+		JPanel panel = new JPanel(new GridLayout(0, 10));
+		List<RangeSlider> sliders = new ArrayList<>();
+		Hashtable<Integer, JComponent> labels = null;
+		for (int i = 0; i < count; i++) {
+			RangeSlider slider = new RangeSlider(0, 100, 20, 80);
+			if (labels == null || !shared) {
+				labels = new Hashtable<>();
+				labels.put(0, new JLabel("0"));
+				labels.put(100, new JLabel("100"));
+			}
+			slider.setLabelTable(labels);
+			slider.setPaintLabels(true);
+			sliders.add(slider);
+			panel.add(slider);
+		}
+		panel.setSize(panel.getPreferredSize());
+		BufferedImage image = new BufferedImage(panel.getWidth(),
+				panel.getHeight(), BufferedImage.TYPE_INT_RGB);
+		double[][] times = new double[2][switches];
+		for (int i = -2; i < switches; i++) {
+			long start = System.nanoTime();
+			setLookAndFeel(lafs[(i + 2) % 2]);
+			if (bulk) {
+				panel.updateUI();
+				RangeSlider.updateUIs(sliders);
+			} else {
+				SwingUtilities.updateComponentTreeUI(panel);
+			}
+			long updated = System.nanoTime();
+			panel.validate();
+			Graphics2D g = image.createGraphics();
+			panel.paint(g);
+			g.dispose();
+			if (i >= 0) {
+				times[0][i] = (updated - start) / 1e6;
+				times[1][i] = (System.nanoTime() - start) / 1e6;
+			}
+		}
+		return times;
+	}
+
+	/**
+	 * Sets the L&F named {@code name}, or Metal with the Ocean or Steel
+	 * theme for {@code "Metal:Ocean"} or {@code "Metal:Steel"}.
+	 */
+	private static void setLookAndFeel(String name) {
+		if (name.equals("Metal:Ocean")) {
+			MetalLookAndFeel.setCurrentTheme(new OceanTheme());
+			name = "Metal";
+		} else if (name.equals("Metal:Steel")) {
+			MetalLookAndFeel.setCurrentTheme(new DefaultMetalTheme());
+			name = "Metal";
+		}
+		FirstPaintBenchmark.setLookAndFeel(name);
+	}
+}
@@ -0,0 +1,145 @@
+package slider;
+
+import java.awt.Graphics2D;
+import java.awt.GridLayout;
+import java.awt.image.BufferedImage;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+
+/**
+ * Checks that creating, re-skinning and discarding range sliders leaks
+ * nothing. Each cycle creates a panel of labelled sliders, half of them
+ * compact, paints it, switches to the next of the L&Fs given, updates the
+ * sliders, alternately one by one and with {@link RangeSlider#updateUIs},
+ * paints the panel again and discards it.
+ * <p>
+ * The heap used after garbage collection is printed five times over the run
+ * and must not grow by more than 10% from the start to the end. The
+ * sliders and delegates of the first cycle are held weakly and must all be
+ * collected, and the number of {@code UIManager} listeners must not grow.
+ * Exits with status 1 if any check fails. For example:
+ *
+ * <pre>
+ * java -Djava.awt.headless=true -cp classes slider.LifecycleSoak 5000 Metal Nimbus "CDE/Motif"
+ * </pre>
+ *
+ * @author johnchen902
+ */
+public class LifecycleSoak {
+
+	private static final int SLIDERS = 10;
+	private static final int REPORTS = 5;
+
+	private static final List<WeakReference<Object>> firstCycle =
+			new ArrayList<>();
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			System.err.println("usage: LifecycleSoak cycles laf...");
+			System.exit(2);
+		}
+		int cycles = Integer.parseInt(args[0]);
+		final String[] lafs = Arrays.copyOfRange(args, 1, args.length);
+		final int listeners = UIManager.getPropertyChangeListeners().length;
+
+		long[] heap = new long[REPORTS];
+		int done = 0;
+		for (int report = 0; report < REPORTS; report++) {
+			final int from = done;
+			final int to = cycles * (report + 1) / REPORTS;
+			SwingUtilities.invokeAndWait(new Runnable() {
+				@Override
+				public void run() {
+					for (int cycle = from; cycle < to; cycle++)
+						cycle(cycle, lafs);
+				}
+			});
+			done = to;
+			heap[report] = FootprintBenchmark.usedHeap();
+			System.out.printf("after %6d cycles: %7d KB%n", done,
+					heap[report] / 1024);
+		}
+
+		boolean ok = true;
+		// Compare the least of the first two figures with the least of the
+		// last two, as one figure may catch garbage Swing frees only later.
+		long first = Math.min(heap[0], heap[1]);
+		long growth = Math.min(heap[REPORTS - 2], heap[REPORTS - 1]) - first;
+		if (growth * 10 > first) {
+			System.out.printf("FAIL heap grew by %d KB%n", growth / 1024);
+			ok = false;
+		}
+		int alive = 0;
+		for (WeakReference<Object> ref : firstCycle)
+			if (ref.get() != null)
+				alive++;
+		if (alive != 0) {
+			System.out.printf("FAIL %d of %d sliders and delegates of the"
+					+ " first cycle are still reachable%n", alive,
+					firstCycle.size());
+			ok = false;
+		}
+		int newListeners = UIManager.getPropertyChangeListeners().length
+				- listeners;
+		if (newListeners > 0) {
+			System.out.printf("FAIL %d UIManager listeners added%n",
+					newListeners);
+			ok = false;
+		}
+		System.out.println(ok ? "OK" : "FAILED");
+		System.exit(ok ? 0 : 1);
+	}
+
+	private static void cycle(int cycle, String[] lafs) {
+		FirstPaintBenchmark.setLookAndFeel(lafs[cycle % lafs.length]);
+		JPanel panel = new JPanel(new GridLayout(0, 1));
+		List<RangeSlider> sliders = new ArrayList<>();
+		for (int i = 0; i < SLIDERS; i++) {
+			RangeSlider slider = new RangeSlider(0, 100, 20, 80);
+			if (i % 2 == 1) {
+				slider.putClientProperty("RangeSlider.compact", Boolean.TRUE);
+				slider.updateUI();
+			}
+			slider.setLabelTable(slider.createStandardLabels(25));
+			slider.setPaintLabels(true);
+			slider.setPaintTicks(true);
+			slider.setMajorTickSpacing(25);
+			sliders.add(slider);
+			panel.add(slider);
+		}
+		paint(panel);
+
+		FirstPaintBenchmark.setLookAndFeel(lafs[(cycle + 1) % lafs.length]);
+		panel.updateUI();
+		if (cycle % 2 == 0) {
+			RangeSlider.updateUIs(sliders);
+		} else {
+			for (RangeSlider slider : sliders)
+				slider.updateUI();
+		}
+		paint(panel);
+
+		if (cycle == 0) {
+			for (RangeSlider slider : sliders) {
+				firstCycle.add(new WeakReference<Object>(slider));
+				firstCycle.add(new WeakReference<Object>(slider.getUI()));
+			}
+		}
+	}
+
+	private static void paint(JPanel panel) {
+		panel.setSize(panel.getPreferredSize());
+		panel.validate();
+		BufferedImage image = new BufferedImage(panel.getWidth(),
+				panel.getHeight(), BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		panel.paint(g);
+		g.dispose();
+	}
+}
@@ -0,0 +1,103 @@
+package slider;
+
+import java.awt.Color;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.EventListenerList;
+
+/**
+ * The listener list and colors shared by the track backdrops of this
+ * package. A backdrop paints in its color, then paints the part between the
+ * thumbs again in its selection color.
+ *
+ * @author johnchen902
+ */
+public abstract class AbstractTrackBackdrop implements TrackBackdrop {
+
+	private Color color;
+	private Color selectionColor;
+
+	private final EventListenerList listenerList = new EventListenerList();
+	private ChangeEvent changeEvent;
+
+	/**
+	 * Returns the color of the backdrop outside the range, or {@code null} for
+	 * a translucent version of the foreground of the slider.
+	 */
+	public Color getColor() {
+		return color;
+	}
+
+	public void setColor(Color color) {
+		this.color = color;
+		fireStateChanged();
+	}
+
+	/**
+	 * Returns the color of the backdrop between the thumbs, or {@code null}
+	 * for a less translucent version of the foreground of the slider.
+	 * Disabled sliders do not highlight the range.
+	 */
+	public Color getSelectionColor() {
+		return selectionColor;
+	}
+
+	public void setSelectionColor(Color selectionColor) {
+		this.selectionColor = selectionColor;
+		fireStateChanged();
+	}
+
+	/**
+	 * Returns the color to paint with, or if it is {@code null}, the
+	 * foreground of the slider with the given alpha.
+	 */
+	static Color colorFor(RangeSlider slider, Color color, int alpha) {
+		if (color != null)
+			return color;
+		Color foreground = slider.getForeground();
+		return new Color(foreground.getRed(), foreground.getGreen(),
+				foreground.getBlue(), alpha);
+	}
+
+	@Override
+	public void addChangeListener(ChangeListener l) {
+		listenerList.add(ChangeListener.class, l);
+	}
+
+	@Override
+	public void removeChangeListener(ChangeListener l) {
+		listenerList.remove(ChangeListener.class, l);
+	}
+
+	/**
+	 * Notifies the listeners of this backdrop, with this backdrop as the
+	 * source.
+	 */
+	protected void fireStateChanged() {
+		Object[] listeners = listenerList.getListenerList();
+		for (int i = listeners.length - 2; i >= 0; i -= 2) {
+			if (listeners[i] == ChangeListener.class) {
+				if (changeEvent == null)
+					changeEvent = new ChangeEvent(this);
+				((ChangeListener) listeners[i + 1]).stateChanged(changeEvent);
+			}
+		}
+	}
+
+	/**
+	 * Notifies the listeners of this backdrop that only the part from
+	 * {@code fromValue} to {@code toValue} has changed.
+	 */
+	protected void fireStateChanged(double fromValue, double toValue) {
+		Object[] listeners = listenerList.getListenerList();
+		TrackBackdropEvent e = null;
+		for (int i = listeners.length - 2; i >= 0; i -= 2) {
+			if (listeners[i] == ChangeListener.class) {
+				if (e == null)
+					e = new TrackBackdropEvent(this, fromValue, toValue);
+				((ChangeListener) listeners[i + 1]).stateChanged(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package slider;
+
+import java.awt.Component;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.JComponent;
+import javax.swing.Timer;
+
+/**
+ * Runs periodic tasks, such as track-click auto-scroll and animations, for
+ * all range sliders from one timer.
+ * <p>
+ * The timer only fires when some task is due, and is stopped when no task is
+ * runnable. Tasks of components that are not showing are paused until the
+ * component is shown again. Tasks of components that become undisplayable,
+ * for example by being removed from their window, or that are removed from
+ * their parent, directly or with one of their ancestors, are cancelled, so
+ * that a discarded component is not kept alive by its tasks, even if it was
+ * never shown. All methods must be called on the event dispatch thread,
+ * where tasks also run.
+ *
+ * @author johnchen902
+ */
+public final class AnimationScheduler {
+
+	/**
+	 * A periodic task.
+	 */
+	public interface Task {
+		/**
+		 * Runs the task once.
+		 *
+		 * @param now
+		 *            the current time, in milliseconds from an arbitrary
+		 *            origin, as by {@link AnimationScheduler#now()}
+		 * @return whether to keep running the task
+		 */
+		boolean tick(long now);
+	}
+
+	/**
+	 * A scheduled task, which can be cancelled.
+	 */
+	public static final class Handle {
+		private final JComponent component;
+		private final Task task;
+		private final int period;
+		private long next;
+		private boolean cancelled;
+
+		private Handle(JComponent component, Task task, int period, long next) {
+			this.component = component;
+			this.task = task;
+			this.period = period;
+			this.next = next;
+		}
+
+		/**
+		 * Stops running the task. Does nothing if the task has finished or
+		 * has been cancelled already.
+		 */
+		public void cancel() {
+			if (!cancelled) {
+				cancelled = true;
+				remove(this);
+			}
+		}
+
+		/**
+		 * Returns whether the task has finished or been cancelled.
+		 */
+		public boolean isCancelled() {
+			return cancelled;
+		}
+	}
+
+	private static final List<Handle> handles = new ArrayList<>();
+	private static final Timer timer = new Timer(0, new ActionListener() {
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			runDueTasks();
+		}
+	});
+	private static final HierarchyListener showingListener = new HierarchyListener() {
+		@Override
+		public void hierarchyChanged(HierarchyEvent e) {
+			long flags = e.getChangeFlags();
+			if ((flags & HierarchyEvent.DISPLAYABILITY_CHANGED) != 0
+					&& !e.getComponent().isDisplayable()
+					|| (flags & HierarchyEvent.PARENT_CHANGED) != 0
+					&& e.getChanged().getParent() == null)
+				cancelAll(e.getComponent());
+			else if ((flags & HierarchyEvent.SHOWING_CHANGED) != 0)
+				reschedule();
+		}
+	};
+
+	static {
+		timer.setRepeats(false);
+	}
+
+	private AnimationScheduler() {
+	}
+
+	/**
+	 * Returns the current time in milliseconds from an arbitrary origin. The
+	 * time is read from {@link System#nanoTime()}, so unlike the wall clock
+	 * it never jumps backwards, which would stall every task until the wall
+	 * clock caught up again.
+	 */
+	public static long now() {
+		return System.nanoTime() / 1000000;
+	}
+
+	/**
+	 * Schedules a task for a component.
+	 *
+	 * @param component
+	 *            the component the task works on; the task is paused while
+	 *            it is not showing
+	 * @param initialDelay
+	 *            milliseconds before the first run
+	 * @param period
+	 *            milliseconds between runs
+	 * @param task
+	 *            the task
+	 * @return a handle to cancel the task
+	 * @throws IllegalArgumentException
+	 *             if {@code initialDelay} is negative or {@code period} is not
+	 *             positive
+	 */
+	public static Handle schedule(JComponent component, int initialDelay,
+			int period, Task task) {
+		if (initialDelay < 0 || period <= 0)
+			throw new IllegalArgumentException("initialDelay: " + initialDelay
+					+ ", period: " + period);
+		if (component == null || task == null)
+			throw new NullPointerException();
+		Handle handle = new Handle(component, task, period,
+				now() + initialDelay);
+		if (!isWatched(component))
+			component.addHierarchyListener(showingListener);
+		handles.add(handle);
+		reschedule();
+		return handle;
+	}
+
+	private static void remove(Handle handle) {
+		handles.remove(handle);
+		if (!isWatched(handle.component))
+			handle.component.removeHierarchyListener(showingListener);
+		reschedule();
+	}
+
+	private static void cancelAll(Component component) {
+		for (Handle h : handles.toArray(new Handle[handles.size()]))
+			if (h.component == component)
+				h.cancel();
+	}
+
+	private static boolean isWatched(JComponent component) {
+		for (Handle h : handles)
+			if (h.component == component)
+				return true;
+		return false;
+	}
+
+	private static void runDueTasks() {
+		long now = now();
+		for (Handle h : handles.toArray(new Handle[handles.size()])) {
+			if (h.cancelled || h.next - now > 0 || !h.component.isShowing())
+				continue;
+			if (h.task.tick(now)) {
+				// Skip missed runs rather than run them in a burst.
+				h.next = h.next + h.period - now > 0 ? h.next + h.period
+						: now + 1;
+			} else {
+				h.cancel();
+			}
+		}
+		reschedule();
+	}
+
+	/**
+	 * Sets the timer to fire when the next runnable task is due, or stops it
+	 * if there is none.
+	 */
+	private static void reschedule() {
+		boolean runnable = false;
+		long next = 0;
+		for (Handle h : handles) {
+			if (h.component.isShowing() && (!runnable || h.next - next < 0)) {
+				next = h.next;
+				runnable = true;
+			}
+		}
+		if (!runnable) {
+			timer.stop();
+		} else {
+			long delay = next - now();
+			timer.setInitialDelay((int) Math.max(0, Math.min(delay,
+					Integer.MAX_VALUE)));
+			timer.restart();
+		}
+	}
+}
@@ -18,6 +18,7 @@ import java.awt.event.ComponentListener;
 import java.awt.event.FocusEvent;
 import java.awt.event.FocusListener;
 import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.Dictionary;
@@ -36,12 +37,13 @@ import javax.swing.JSlider;
 import javax.swing.KeyStroke;
 import javax.swing.LookAndFeel;
 import javax.swing.SwingUtilities;
-import javax.swing.Timer;
 import javax.swing.UIManager;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 import javax.swing.event.MouseInputAdapter;
+import javax.swing.plaf.ActionMapUIResource;
 import javax.swing.plaf.ComponentUI;
+import javax.swing.plaf.InputMapUIResource;
 import javax.swing.plaf.InsetsUIResource;
 import javax.swing.plaf.basic.BasicGraphicsUtils;
 
@@ -50,6 +52,14 @@ import sun.swing.DefaultLookup;
 /**
  * A basic UI delegate for the RangeSlider component. BasicRangeSliderUI paints
  * two thumbs, one for the lower value and one for the upper value.
+ * <p>
+ * A slider whose client property {@code "RangeSlider.compact"} is
+ * {@code Boolean.TRUE} when its delegate is installed, or any slider if the
+ * defaults hold that key instead, is compact: its track and focus listeners
+ * are left {@code null} until the first mouse or focus event, which a
+ * listener shared by all compact sliders waits for. This saves only those
+ * two objects, some 50 bytes per slider; delegates are not shared and keep
+ * their geometry in the protected rectangles.
  */
 public class BasicRangeSliderUI extends RangeSliderUI {
 
@@ -64,7 +74,13 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 	public static final String MIN_SCROLL_NAME = "minScroll";
 	public static final String MAX_SCROLL_NAME = "maxScroll";
 
-	protected Timer scrollTimer;
+	private AnimationScheduler.Handle autoScroll;
+
+	/**
+	 * The actions created by {@link #createKeyboardAction}, by name, or
+	 * {@code null} before the first key press.
+	 */
+	private ActionMap keyboardActions;
 	protected RangeSlider slider;
 
 	protected Insets focusInsets = null;
@@ -84,6 +100,18 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 
 	private transient boolean isDragging;
 
+	/**
+	 * Whether calculateGeometry has been put off until the slider is next
+	 * painted or measured. See {@link RangeSlider#updateUIs}.
+	 */
+	boolean geometryDeferred;
+
+	/**
+	 * Whether the values changed while the slider was not showing, so the
+	 * thumb locations are still to be calculated.
+	 */
+	private boolean thumbLocationStale;
+
 	protected RangeTrackListener trackListener;
 	protected ChangeListener changeListener;
 	protected ComponentListener componentListener;
@@ -92,6 +120,8 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 	protected PropertyChangeListener propertyChangeListener;
 
 	// Colors
+	private static final Color DEFAULT_DISABLED_RANGE_COLOR = new Color(
+			0x3FBF3F);
 	private Color shadowColor;
 	private Color highlightColor;
 	private Color focusColor;
@@ -107,6 +137,45 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 	 */
 	private boolean sameLabelBaselines;
 
+	/**
+	 * Incremented whenever a property affecting the layout changes. Memoized
+	 * layout results are only valid for the version they were computed at.
+	 */
+	private int geometryVersion;
+
+	private static final int BASELINE_CACHE_SIZE = 4;
+	/**
+	 * Width, height and baseline triples memoized by getBaseline, created on
+	 * first use.
+	 */
+	private int[] baselineCache;
+	private int baselineCacheCount;
+	private int baselineCacheVersion = -1;
+
+	private static final int GEOMETRY_CACHE_SIZE = 4;
+	/**
+	 * Width and height followed by the size-dependent geometry, memoized by
+	 * layoutForSize, created on first use.
+	 */
+	private int[] geometryCache;
+	private int geometryCacheCount;
+	private int geometryCacheVersion = -1;
+	/**
+	 * The size last laid out by layoutForSize, so that the resize event that
+	 * follows does not calculate the same geometry again.
+	 */
+	private int laidOutWidth = -1, laidOutHeight;
+
+	/**
+	 * The model range the memoized layout results were computed for.
+	 */
+	private int layoutMinimum, layoutMaximum;
+
+	private Dimension preferredSizeCache;
+	private int preferredSizeVersion = -1;
+	private Dimension minimumSizeCache;
+	private int minimumSizeVersion = -1;
+
 	protected Color getShadowColor() {
 		return shadowColor;
 	}
@@ -148,15 +217,18 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 		slider = (RangeSlider) c;
 
 		checkedLabelBaselines = false;
+		invalidateLayoutCaches();
 
 		slider.setEnabled(slider.isEnabled());
 		LookAndFeel.installProperty(slider, "opaque", Boolean.TRUE);
 
 		isDragging = false;
-		trackListener = createTrackListener(slider);
+		if (!isCompact(slider)) {
+			trackListener = createTrackListener(slider);
+			focusListener = createFocusListener(slider);
+		}
 		changeListener = createChangeListener(slider);
 		componentListener = createComponentListener(slider);
-		focusListener = createFocusListener(slider);
 		scrollListener = createScrollListener(slider);
 		propertyChangeListener = createPropertyChangeListener(slider);
 
@@ -164,9 +236,6 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 		installListeners(slider);
 		installKeyboardActions(slider);
 
-		scrollTimer = new Timer(100, scrollListener);
-		scrollTimer.setInitialDelay(300);
-
 		insetCache = slider.getInsets();
 		leftToRightCache = slider.getComponentOrientation().isLeftToRight();
 		focusRect = new Rectangle();
@@ -178,8 +247,54 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 		rangeTrackRect = new Rectangle();
 		upperThumbRect = new Rectangle();
 
-		calculateGeometry(); // This figures out where the labels, ticks, track,
-								// and thumb are.
+		if (slider.updatingUIs)
+			geometryDeferred = true;
+		else
+			calculateGeometry(); // This figures out where the labels, ticks,
+									// track, and thumb are.
+	}
+
+	/**
+	 * Returns whether this delegate paints only through state of its own, so
+	 * that sliders using it can be painted on several threads at once. See
+	 * {@link OffscreenRangeSlider}. Subclasses are assumed not to.
+	 */
+	boolean paintsConcurrently() {
+		return getClass() == BasicRangeSliderUI.class;
+	}
+
+	/**
+	 * Returns the strip along the track that holds everything whose painting
+	 * depends on the values: the track, the range track and both thumbs. The
+	 * rest of the slider, such as the ticks and the labels, looks the same
+	 * whatever the values. See {@link RangeSliderImageExporter}.
+	 */
+	Rectangle getValueDependentBounds() {
+		Rectangle r = trackRect.union(lowerThumbRect).union(upperThumbRect);
+		if (slider.getOrientation() == JSlider.HORIZONTAL) {
+			r.x = 0;
+			r.width = slider.getWidth();
+		} else {
+			r.y = 0;
+			r.height = slider.getHeight();
+		}
+		return r;
+	}
+
+	/**
+	 * Reinstalls the defaults and keyboard actions of the current L&F while
+	 * keeping this delegate and its listeners. Used by
+	 * {@link RangeSlider#updateUIs} when the new L&F uses the same delegate
+	 * class.
+	 */
+	void reinstallDefaults() {
+		uninstallKeyboardActions(slider);
+		uninstallDefaults(slider);
+		installDefaults(slider);
+		installKeyboardActions(slider);
+		checkedLabelBaselines = false;
+		invalidateLayoutCaches();
+		geometryDeferred = true;
 	}
 
 	@Override
@@ -189,8 +304,7 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 					+ " was asked to deinstall() " + c
 					+ " when it only knows about " + slider + ".");
 
-		scrollTimer.stop();
-		scrollTimer = null;
+		stopAutoScroll();
 
 		uninstallDefaults(slider);
 		uninstallListeners(slider);
@@ -198,12 +312,22 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 
 		insetCache = null;
 		leftToRightCache = true;
+		focusInsets = null;
 		focusRect = null;
 		contentRect = null;
 		labelRect = null;
 		tickRect = null;
 		trackRect = null;
+		rangeTrackRect = null;
 		lowerThumbRect = null;
+		upperThumbRect = null;
+		shadowColor = null;
+		highlightColor = null;
+		focusColor = null;
+		rangeColor = null;
+		disabledRangeColor = null;
+		preferredSizeCache = null;
+		minimumSizeCache = null;
 		trackListener = null;
 		changeListener = null;
 		componentListener = null;
@@ -226,7 +350,7 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 			rangeColor = Color.GREEN;
 		disabledRangeColor = UIManager.getColor("RangeSlider.disabled.range");
 		if (disabledRangeColor == null)
-			disabledRangeColor = new Color(0x3FBF3F);
+			disabledRangeColor = DEFAULT_DISABLED_RANGE_COLOR;
 
 		focusInsets = (Insets) UIManager.get("Slider.focusInsets");
 		if (focusInsets == null)
@@ -239,6 +363,35 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 		focusInsets = null;
 	}
 
+	/**
+	 * Starts repeating a track click in {@code direction} through the
+	 * scrollListener, after a delay of 300 ms and then every 100 ms, until
+	 * {@link #stopAutoScroll()} is called.
+	 */
+	protected void startAutoScroll(int direction) {
+		stopAutoScroll();
+		scrollListener.setDirection(direction);
+		autoScroll = AnimationScheduler.schedule(slider, 300, 100,
+				new AnimationScheduler.Task() {
+					@Override
+					public boolean tick(long now) {
+						scrollListener.actionPerformed(new ActionEvent(slider,
+								ActionEvent.ACTION_PERFORMED, null));
+						return true;
+					}
+				});
+	}
+
+	/**
+	 * Stops repeating a track click.
+	 */
+	protected void stopAutoScroll() {
+		if (autoScroll != null) {
+			autoScroll.cancel();
+			autoScroll = null;
+		}
+	}
+
 	protected RangeTrackListener createTrackListener(JSlider slider) {
 		return new RangeTrackListener();
 	}
@@ -264,67 +417,198 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 	}
 
 	protected void installListeners(JSlider slider) {
-		slider.addMouseListener(trackListener);
-		slider.addMouseMotionListener(trackListener);
-		slider.addFocusListener(focusListener);
+		if (trackListener == null) {
+			slider.addMouseListener(Activator.INSTANCE);
+			slider.addMouseMotionListener(Activator.INSTANCE);
+			slider.addFocusListener(Activator.INSTANCE);
+		} else {
+			installInteractionListeners(slider);
+		}
 		slider.addComponentListener(componentListener);
 		slider.addPropertyChangeListener(propertyChangeListener);
 		slider.getModel().addChangeListener(changeListener);
 	}
 
 	protected void uninstallListeners(JSlider slider) {
+		slider.removeMouseListener(Activator.INSTANCE);
+		slider.removeMouseMotionListener(Activator.INSTANCE);
+		slider.removeFocusListener(Activator.INSTANCE);
 		slider.removeMouseListener(trackListener);
 		slider.removeMouseMotionListener(trackListener);
+		slider.removeMouseWheelListener(trackListener);
 		slider.removeFocusListener(focusListener);
 		slider.removeComponentListener(componentListener);
 		slider.removePropertyChangeListener(propertyChangeListener);
 		slider.getModel().removeChangeListener(changeListener);
 	}
 
+	private void installInteractionListeners(JSlider slider) {
+		slider.addMouseListener(trackListener);
+		slider.addMouseMotionListener(trackListener);
+		if (slider instanceof RangeSlider
+				&& ((RangeSlider) slider).isZoomable())
+			slider.addMouseWheelListener(trackListener);
+		slider.addFocusListener(focusListener);
+	}
+
+	/**
+	 * Returns whether {@code slider} is to be compact. See the class
+	 * comment.
+	 */
+	private static boolean isCompact(JComponent slider) {
+		Object compact = slider.getClientProperty("RangeSlider.compact");
+		if (compact == null)
+			compact = UIManager.get("RangeSlider.compact");
+		return Boolean.TRUE.equals(compact);
+	}
+
+	/**
+	 * Creates and installs the track and focus listeners of a compact slider
+	 * in place of the shared activator, unless that is done already.
+	 */
+	private void activate() {
+		if (trackListener != null)
+			return;
+		slider.removeMouseListener(Activator.INSTANCE);
+		slider.removeMouseMotionListener(Activator.INSTANCE);
+		slider.removeFocusListener(Activator.INSTANCE);
+		trackListener = createTrackListener(slider);
+		focusListener = createFocusListener(slider);
+		installInteractionListeners(slider);
+	}
+
+	/**
+	 * Waits for the first mouse or focus event of compact sliders, then has
+	 * the delegate activate and hands the event to the listener just created,
+	 * which missed it. Stateless, so one serves all sliders.
+	 */
+	private static final class Activator extends MouseInputAdapter implements
+			FocusListener {
+		static final Activator INSTANCE = new Activator();
+
+		private static BasicRangeSliderUI activate(Object source) {
+			BasicRangeSliderUI ui = (BasicRangeSliderUI) ((RangeSlider) source)
+					.getUI();
+			ui.activate();
+			return ui;
+		}
+
+		@Override
+		public void mouseEntered(MouseEvent e) {
+			activate(e.getSource()).trackListener.mouseEntered(e);
+		}
+
+		@Override
+		public void mousePressed(MouseEvent e) {
+			activate(e.getSource()).trackListener.mousePressed(e);
+		}
+
+		@Override
+		public void mouseMoved(MouseEvent e) {
+			activate(e.getSource()).trackListener.mouseMoved(e);
+		}
+
+		@Override
+		public void mouseDragged(MouseEvent e) {
+			activate(e.getSource()).trackListener.mouseDragged(e);
+		}
+
+		@Override
+		public void focusGained(FocusEvent e) {
+			activate(e.getSource()).focusListener.focusGained(e);
+		}
+
+		@Override
+		public void focusLost(FocusEvent e) {
+			activate(e.getSource()).focusListener.focusLost(e);
+		}
+	}
+
+	/**
+	 * Installs the shared action map. The input map is only needed once the
+	 * slider has focus, so it is installed on the first focus gained, or
+	 * now if the slider has focus already; see
+	 * {@link #installFocusInputMap()}.
+	 */
 	protected void installKeyboardActions(JSlider slider) {
-		InputMap km = getInputMap(JComponent.WHEN_FOCUSED, slider);
-		SwingUtilities.replaceUIInputMap(slider, JComponent.WHEN_FOCUSED, km);
-
-		ActionMap ac = slider.getActionMap();
-		ac.put(POSITIVE_UNIT_NAME, new ScrollActions(POSITIVE_UNIT_NAME));
-		ac.put(POSITIVE_BLOCK_NAME, new ScrollActions(POSITIVE_BLOCK_NAME));
-		ac.put(NEGATIVE_UNIT_NAME, new ScrollActions(NEGATIVE_UNIT_NAME));
-		ac.put(NEGATIVE_BLOCK_NAME, new ScrollActions(NEGATIVE_BLOCK_NAME));
-		ac.put(MIN_SCROLL_NAME, new ScrollActions(MIN_SCROLL_NAME));
-		ac.put(MAX_SCROLL_NAME, new ScrollActions(MAX_SCROLL_NAME));
-		ac.put("tab", new TabActions(false, false));
-		ac.put("shifttab", new TabActions(false, true));
-		ac.put("ctrltab", new TabActions(true, false));
-		ac.put("ctrlshifttab", new TabActions(true, true));
+		if (slider.isFocusOwner())
+			installFocusInputMap();
+		SwingUtilities.replaceUIActionMap(slider, getSharedActionMap());
 		slider.setFocusTraversalKeysEnabled(false);
 	}
 
+	/**
+	 * Installs the input map for the focused slider, unless it is installed
+	 * already.
+	 */
+	private void installFocusInputMap() {
+		if (SwingUtilities.getUIInputMap(slider,
+				JComponent.WHEN_FOCUSED) == null)
+			SwingUtilities.replaceUIInputMap(slider, JComponent.WHEN_FOCUSED,
+					getInputMap(JComponent.WHEN_FOCUSED, slider));
+	}
+
+	/**
+	 * Returns the input map for the current L&F and the orientation of
+	 * {@code slider}. One map is kept in the L&F defaults, so that it is
+	 * dropped with them when the L&F changes, and shared by all range
+	 * sliders whose slider input map, looked up for each slider, is the
+	 * same; a slider with another, such as one styled on its own by Synth,
+	 * gets a map of its own.
+	 */
 	private InputMap getInputMap(int condition, JSlider slider) {
 		if (condition == JComponent.WHEN_FOCUSED) {
-			InputMap keyMap = (InputMap) DefaultLookup.get(slider, this,
-					"Slider.focusInputMap");
+			boolean leftToRight = slider.getComponentOrientation()
+					.isLeftToRight();
+			String mapKey = leftToRight ? "RangeSlider.focusInputMap"
+					: "RangeSlider.focusInputMap.RightToLeft";
 
-			if (!slider.getComponentOrientation().isLeftToRight()) {
+			InputMap parent = (InputMap) DefaultLookup.get(slider, this,
+					"Slider.focusInputMap");
+			if (!leftToRight) {
 				InputMap rtlKeyMap = (InputMap) DefaultLookup.get(slider, this,
 						"Slider.focusInputMap.RightToLeft");
 				if (rtlKeyMap != null) {
-					rtlKeyMap.setParent(keyMap);
-					keyMap = rtlKeyMap;
+					rtlKeyMap.setParent(parent);
+					parent = rtlKeyMap;
 				}
 			}
 
+			InputMap keyMap = (InputMap) UIManager.get(mapKey);
+			if (keyMap != null && keyMap.getParent() == parent)
+				return keyMap;
+			boolean shared = keyMap == null;
+
+			keyMap = new InputMapUIResource();
+			keyMap.setParent(parent);
 			keyMap.put(KeyStroke.getKeyStroke("pressed TAB"), "tab");
 			keyMap.put(KeyStroke.getKeyStroke("shift pressed TAB"), "shifttab");
 			keyMap.put(KeyStroke.getKeyStroke("ctrl pressed TAB"), "ctrltab");
 			keyMap.put(KeyStroke.getKeyStroke("ctrl shift pressed TAB"),
 					"ctrlshifttab");
-
+			if (shared)
+				UIManager.getLookAndFeelDefaults().put(mapKey, keyMap);
 			return keyMap;
 		}
 		return null;
 	}
 
+	/**
+	 * Returns the action map shared by all range sliders of the current L&F,
+	 * kept in the L&F defaults like the input maps.
+	 */
+	private static ActionMap getSharedActionMap() {
+		ActionMap map = (ActionMap) UIManager.get("RangeSlider.actionMap");
+		if (map == null) {
+			map = new LazyActionMap();
+			UIManager.getLookAndFeelDefaults().put("RangeSlider.actionMap",
+					map);
+		}
+		return map;
+	}
+
 	protected void uninstallKeyboardActions(JSlider slider) {
+		keyboardActions = null;
 		SwingUtilities.replaceUIActionMap(slider, null);
 		SwingUtilities.replaceUIInputMap(slider, JComponent.WHEN_FOCUSED, null);
 		slider.setFocusTraversalKeysEnabled(true);
@@ -342,6 +626,31 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 	@Override
 	public int getBaseline(JComponent c, int width, int height) {
 		super.getBaseline(c, width, height);
+		if (baselineCacheVersion != geometryVersion) {
+			baselineCacheVersion = geometryVersion;
+			baselineCacheCount = 0;
+		}
+		if (baselineCache == null)
+			baselineCache = new int[BASELINE_CACHE_SIZE * 3];
+		int n = Math.min(baselineCacheCount, BASELINE_CACHE_SIZE);
+		for (int i = 0; i < n * 3; i += 3) {
+			if (baselineCache[i] == width && baselineCache[i + 1] == height)
+				return baselineCache[i + 2];
+		}
+		int baseline = calculateBaseline(width, height);
+		int i = (baselineCacheCount++ % BASELINE_CACHE_SIZE) * 3;
+		baselineCache[i] = width;
+		baselineCache[i + 1] = height;
+		baselineCache[i + 2] = baseline;
+		return baseline;
+	}
+
+	/**
+	 * Calculates the baseline for the given size. The result is memoized by
+	 * {@link #getBaseline(JComponent, int, int)} until
+	 * {@link #invalidateLayoutCaches()} is called.
+	 */
+	protected int calculateBaseline(int width, int height) {
 		if (slider.getPaintLabels() && labelsHaveSameBaselines()) {
 			FontMetrics metrics = slider.getFontMetrics(slider.getFont());
 			Insets insets = slider.getInsets();
@@ -389,6 +698,17 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 		return 0;
 	}
 
+	/**
+	 * Discards memoized layout results such as baselines and sizes. Called
+	 * whenever a property affecting the layout changes, including the minimum
+	 * and maximum of the model.
+	 */
+	protected void invalidateLayoutCaches() {
+		geometryVersion++;
+		layoutMinimum = slider.getMinimum();
+		layoutMaximum = slider.getMaximum();
+	}
+
 	/**
 	 * Returns an enum indicating how the baseline of the component changes as
 	 * the size changes.
@@ -479,8 +799,34 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 		return minVertDim;
 	}
 
+	/**
+	 * Returns the preferred size, memoized until
+	 * {@link #invalidateLayoutCaches()} is called.
+	 */
 	@Override
 	public Dimension getPreferredSize(JComponent c) {
+		if (preferredSizeCache == null
+				|| preferredSizeVersion != geometryVersion) {
+			preferredSizeCache = calculatePreferredSize();
+			preferredSizeVersion = geometryVersion;
+		}
+		return new Dimension(preferredSizeCache);
+	}
+
+	/**
+	 * Returns the minimum size, memoized until
+	 * {@link #invalidateLayoutCaches()} is called.
+	 */
+	@Override
+	public Dimension getMinimumSize(JComponent c) {
+		if (minimumSizeCache == null || minimumSizeVersion != geometryVersion) {
+			minimumSizeCache = calculateMinimumSize();
+			minimumSizeVersion = geometryVersion;
+		}
+		return new Dimension(minimumSizeCache);
+	}
+
+	protected Dimension calculatePreferredSize() {
 		recalculateIfInsetsChanged();
 		Dimension d;
 		if (slider.getOrientation() == JSlider.VERTICAL) {
@@ -497,8 +843,7 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 		return d;
 	}
 
-	@Override
-	public Dimension getMinimumSize(JComponent c) {
+	protected Dimension calculateMinimumSize() {
 		recalculateIfInsetsChanged();
 		Dimension d;
 
@@ -539,6 +884,80 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 		calculateRangeTrackRect();
 	}
 
+	/**
+	 * Calculates the geometry for the current size of the slider, restoring
+	 * the size-dependent part from the last few sizes laid out instead of
+	 * recalculating it. Only the thumbs and the range track are placed anew.
+	 * For sliders laid out at a few sizes over and over, such as the stamps
+	 * of table cells in columns of different widths. The memoized geometry is
+	 * discarded when {@link #invalidateLayoutCaches()} is called.
+	 */
+	final void layoutForSize() {
+		int width = slider.getWidth();
+		int height = slider.getHeight();
+		Rectangle[] rects = getSizeDependentRects();
+		int stride = 3 + rects.length * 4;
+		if (geometryCacheVersion != geometryVersion) {
+			geometryCacheVersion = geometryVersion;
+			geometryCacheCount = 0;
+		}
+		if (geometryCache == null)
+			geometryCache = new int[GEOMETRY_CACHE_SIZE * stride];
+		int n = Math.min(geometryCacheCount, GEOMETRY_CACHE_SIZE);
+		for (int i = 0; i < n * stride; i += stride) {
+			if (geometryCache[i] == width && geometryCache[i + 1] == height) {
+				trackBuffer = geometryCache[i + 2];
+				int j = i + 3;
+				for (Rectangle r : rects) {
+					r.setBounds(geometryCache[j], geometryCache[j + 1],
+							geometryCache[j + 2], geometryCache[j + 3]);
+					j += 4;
+				}
+				calculateThumbLocation();
+				calculateRangeTrackRect();
+				laidOutWidth = width;
+				laidOutHeight = height;
+				return;
+			}
+		}
+		calculateGeometry();
+		laidOutWidth = width;
+		laidOutHeight = height;
+		int i = (geometryCacheCount++ % GEOMETRY_CACHE_SIZE) * stride;
+		geometryCache[i] = width;
+		geometryCache[i + 1] = height;
+		geometryCache[i + 2] = trackBuffer;
+		int j = i + 3;
+		for (Rectangle r : rects) {
+			geometryCache[j] = r.x;
+			geometryCache[j + 1] = r.y;
+			geometryCache[j + 2] = r.width;
+			geometryCache[j + 3] = r.height;
+			j += 4;
+		}
+	}
+
+	/**
+	 * Returns whether {@link #layoutForSize()} has laid the slider out for
+	 * its current size since the last {@link #invalidateLayoutCaches()}.
+	 */
+	private boolean isLaidOutForSize() {
+		return geometryCacheVersion == geometryVersion
+				&& laidOutWidth == slider.getWidth()
+				&& laidOutHeight == slider.getHeight();
+	}
+
+	/**
+	 * Returns the rectangles {@link #calculateGeometry()} sets from the size
+	 * of the slider, apart from the thumbs and the range track. A subclass
+	 * laying out more rectangles returns them as well, always in the same
+	 * number.
+	 */
+	Rectangle[] getSizeDependentRects() {
+		return new Rectangle[] { focusRect, contentRect, labelRect, tickRect,
+				trackRect };
+	}
+
 	protected void calculateFocusRect() {
 		focusRect.x = insetCache.left;
 		focusRect.y = insetCache.top;
@@ -969,11 +1388,15 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 	public void paint(Graphics g, JComponent c) {
 		recalculateIfInsetsChanged();
 		recalculateIfOrientationChanged();
+		recalculateIfThumbLocationStale();
 		Rectangle clip = g.getClipBounds();
 
 		if (!clip.intersects(trackRect) && slider.getPaintTrack())
 			calculateGeometry();
 
+		if (slider.getTrackBackdrop() != null && clip.intersects(trackRect)) {
+			paintTrackBackdrop(g);
+		}
 		if (slider.getPaintTrack() && clip.intersects(trackRect)) {
 			paintTrack(g);
 		}
@@ -1008,12 +1431,33 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 
 	protected void recalculateIfInsetsChanged() {
 		Insets newInsets = slider.getInsets();
-		if (!newInsets.equals(insetCache)) {
+		if (geometryDeferred || !newInsets.equals(insetCache)) {
+			geometryDeferred = false;
 			insetCache = newInsets;
+			invalidateLayoutCaches();
 			calculateGeometry();
 		}
 	}
 
+	void recalculateIfThumbLocationStale() {
+		if (thumbLocationStale) {
+			thumbLocationStale = false;
+			calculateThumbLocation();
+			calculateRangeTrackRect();
+		}
+	}
+
+	/**
+	 * Returns the region to repaint when the values change, in a new
+	 * rectangle. The default is the union of both thumbs and the range track;
+	 * the change handler repaints the union of this region before and after
+	 * the thumbs move. Subclasses that paint more that depends on the values
+	 * should add it.
+	 */
+	protected Rectangle getValueRepaintBounds() {
+		return lowerThumbRect.union(upperThumbRect).union(rangeTrackRect);
+	}
+
 	protected void recalculateIfOrientationChanged() {
 		boolean ltr = slider.getComponentOrientation().isLeftToRight();
 		if (ltr != leftToRightCache) {
@@ -1029,6 +1473,59 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 				focusRect.width, focusRect.height);
 	}
 
+	/**
+	 * Paints the track backdrop of the slider, clipped to the track.
+	 * 
+	 * @see RangeSlider#setTrackBackdrop
+	 */
+	protected void paintTrackBackdrop(Graphics g) {
+		int minPosition = trackPositionForValue(slider.getVisibleMinimum());
+		int maxPosition = trackPositionForValue(slider.getVisibleMaximum());
+		Graphics backdropGraphics = g.create();
+		try {
+			backdropGraphics.clipRect(trackRect.x, trackRect.y,
+					trackRect.width, trackRect.height);
+			slider.getTrackBackdrop().paint(backdropGraphics, slider,
+					trackRect, rangeTrackRect, minPosition, maxPosition);
+		} finally {
+			backdropGraphics.dispose();
+		}
+	}
+
+	/**
+	 * Repaints the part of the track backdrop from {@code fromValue} to
+	 * {@code toValue}, which may be infinite.
+	 */
+	void repaintTrackBackdrop(double fromValue, double toValue) {
+		int min = slider.getVisibleMinimum();
+		int max = slider.getVisibleMaximum();
+		int minPosition = trackPositionForValue(min);
+		int maxPosition = trackPositionForValue(max);
+		if (max <= min || minPosition == maxPosition)
+			return;
+		double scale = (double) (maxPosition - minPosition) / (max - min);
+		double p0 = minPosition + (fromValue - min) * scale;
+		double p1 = minPosition + (toValue - min) * scale;
+		boolean horizontal = slider.getOrientation() == JSlider.HORIZONTAL;
+		int trackStart = horizontal ? trackRect.x : trackRect.y;
+		int trackEnd = trackStart
+				+ (horizontal ? trackRect.width : trackRect.height);
+		int from = (int) Math.max(trackStart,
+				Math.floor(Math.min(p0, p1)) - 1);
+		int to = (int) Math.min(trackEnd, Math.ceil(Math.max(p0, p1)) + 1);
+		if (from >= to)
+			return;
+		if (horizontal)
+			slider.repaint(from, trackRect.y, to - from, trackRect.height);
+		else
+			slider.repaint(trackRect.x, from, trackRect.width, to - from);
+	}
+
+	private int trackPositionForValue(int value) {
+		return slider.getOrientation() == JSlider.HORIZONTAL
+				? xPositionForValue(value) : yPositionForValue(value);
+	}
+
 	protected void paintTrack(Graphics g) {
 		Rectangle trackBounds = trackRect;
 
@@ -1097,34 +1594,36 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 			g.translate(0, tickBounds.y);
 
 			if (slider.getMinorTickSpacing() > 0) {
-				int value = slider.getMinimum();
+				int spacing = getVisibleTickSpacing(slider.getMinorTickSpacing());
+				int value = getFirstVisibleTick(spacing);
 
-				while (value <= slider.getMaximum()) {
+				while (value <= slider.getVisibleMaximum()) {
 					int xPos = xPositionForValue(value);
 					paintMinorTickForHorizSlider(g, tickBounds, xPos);
 
 					// Overflow checking
-					if (Integer.MAX_VALUE - slider.getMinorTickSpacing() < value) {
+					if (Integer.MAX_VALUE - spacing < value) {
 						break;
 					}
 
-					value += slider.getMinorTickSpacing();
+					value += spacing;
 				}
 			}
 
 			if (slider.getMajorTickSpacing() > 0) {
-				int value = slider.getMinimum();
+				int spacing = getVisibleTickSpacing(slider.getMajorTickSpacing());
+				int value = getFirstVisibleTick(spacing);
 
-				while (value <= slider.getMaximum()) {
+				while (value <= slider.getVisibleMaximum()) {
 					int xPos = xPositionForValue(value);
 					paintMajorTickForHorizSlider(g, tickBounds, xPos);
 
 					// Overflow checking
-					if (Integer.MAX_VALUE - slider.getMajorTickSpacing() < value) {
+					if (Integer.MAX_VALUE - spacing < value) {
 						break;
 					}
 
-					value += slider.getMajorTickSpacing();
+					value += spacing;
 				}
 			}
 
@@ -1139,18 +1638,19 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 					g.translate(offset, 0);
 				}
 
-				int value = slider.getMinimum();
+				int spacing = getVisibleTickSpacing(slider.getMinorTickSpacing());
+				int value = getFirstVisibleTick(spacing);
 
-				while (value <= slider.getMaximum()) {
+				while (value <= slider.getVisibleMaximum()) {
 					int yPos = yPositionForValue(value);
 					paintMinorTickForVertSlider(g, tickBounds, yPos);
 
 					// Overflow checking
-					if (Integer.MAX_VALUE - slider.getMinorTickSpacing() < value) {
+					if (Integer.MAX_VALUE - spacing < value) {
 						break;
 					}
 
-					value += slider.getMinorTickSpacing();
+					value += spacing;
 				}
 
 				if (!slider.getComponentOrientation().isLeftToRight()) {
@@ -1163,18 +1663,19 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 					g.translate(2, 0);
 				}
 
-				int value = slider.getMinimum();
+				int spacing = getVisibleTickSpacing(slider.getMajorTickSpacing());
+				int value = getFirstVisibleTick(spacing);
 
-				while (value <= slider.getMaximum()) {
+				while (value <= slider.getVisibleMaximum()) {
 					int yPos = yPositionForValue(value);
 					paintMajorTickForVertSlider(g, tickBounds, yPos);
 
 					// Overflow checking
-					if (Integer.MAX_VALUE - slider.getMajorTickSpacing() < value) {
+					if (Integer.MAX_VALUE - spacing < value) {
 						break;
 					}
 
-					value += slider.getMajorTickSpacing();
+					value += spacing;
 				}
 
 				if (!slider.getComponentOrientation().isLeftToRight()) {
@@ -1185,6 +1686,52 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 		}
 	}
 
+	/**
+	 * Returns the spacing of the ticks to paint for ticks set {@code spacing}
+	 * values apart. While the slider is zoomed in, the spacing is divided by
+	 * 2, 5, 10, 20, 50 and so on, as far as the ticks stay at least as far
+	 * apart on the track as they are when the slider is zoomed out, so that
+	 * there are about as many ticks at every zoom level.
+	 */
+	protected int getVisibleTickSpacing(int spacing) {
+		double visible = (double) slider.getVisibleMaximum()
+				- slider.getVisibleMinimum();
+		double full = (double) slider.getMaximum() - slider.getMinimum();
+		int result = spacing;
+		for (long divisor = 2; divisor <= spacing; divisor *= 10) {
+			if (!tryDivide(spacing, divisor, visible, full))
+				break;
+			result = (int) (spacing / divisor);
+			if (!tryDivide(spacing, divisor * 5 / 2, visible, full))
+				break;
+			result = (int) (spacing / (divisor * 5 / 2));
+			if (!tryDivide(spacing, divisor * 5, visible, full))
+				break;
+			result = (int) (spacing / (divisor * 5));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns whether ticks {@code spacing / divisor} apart would be at least
+	 * as far apart when {@code visible} of {@code full} values are shown as
+	 * ticks {@code spacing} apart are when all of them are.
+	 */
+	private static boolean tryDivide(int spacing, long divisor,
+			double visible, double full) {
+		return spacing % divisor == 0 && visible * divisor <= full;
+	}
+
+	/**
+	 * Returns the first value at or after the visible minimum where a tick
+	 * goes, ticks being {@code spacing} values apart from the minimum.
+	 */
+	protected int getFirstVisibleTick(int spacing) {
+		long min = slider.getMinimum();
+		long offset = slider.getVisibleMinimum() - min;
+		return (int) (min + (offset + spacing - 1) / spacing * spacing);
+	}
+
 	protected void paintMinorTickForHorizSlider(Graphics g,
 			Rectangle tickBounds, int x) {
 		g.drawLine(x, 0, x, tickBounds.height / 2 - 1);
@@ -1211,8 +1758,8 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 		Dictionary<?, ?> dictionary = slider.getLabelTable();
 		if (dictionary != null) {
 			Enumeration<?> keys = dictionary.keys();
-			int minValue = slider.getMinimum();
-			int maxValue = slider.getMaximum();
+			int minValue = slider.getVisibleMinimum();
+			int maxValue = slider.getVisibleMaximum();
 			boolean enabled = slider.isEnabled();
 			while (keys.hasMoreElements()) {
 				Integer key = (Integer) keys.nextElement();
@@ -1394,7 +1941,7 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 	}
 
 	// Used exclusively by setThumbLocation() and setUpperThumbLocation()
-	private static Rectangle unionRect = new Rectangle();
+	private final Rectangle unionRect = new Rectangle();
 
 	protected void setLowerThumbLocation(int x, int y) {
 		unionRect.setBounds(lowerThumbRect);
@@ -1420,12 +1967,10 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 		slider.repaint(unionRect);
 	}
 
-	private static Rectangle bufferRect = new Rectangle();
-
 	private void swapThumbRects() {
-		bufferRect.setFrame(upperThumbRect);
-		upperThumbRect.setFrame(lowerThumbRect);
-		lowerThumbRect.setFrame(bufferRect);
+		Rectangle rect = upperThumbRect;
+		upperThumbRect = lowerThumbRect;
+		lowerThumbRect = rect;
 	}
 
 	private void scrollByDelta(int delta) {
@@ -1454,7 +1999,8 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 
 	protected void scrollByBlock(int direction) {
 		synchronized (slider) {
-			int blockIncrement = (slider.getMaximum() - slider.getMinimum()) / 10;
+			int blockIncrement = (slider.getVisibleMaximum() - slider
+					.getVisibleMinimum()) / 10;
 			if (blockIncrement == 0) {
 				blockIncrement = 1;
 			}
@@ -1497,8 +2043,8 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 	}
 
 	protected int xPositionForValue(int value) {
-		int min = slider.getMinimum();
-		int max = slider.getMaximum();
+		int min = slider.getVisibleMinimum();
+		int max = slider.getVisibleMaximum();
 		int trackLength = trackRect.width;
 		double valueRange = (double) max - (double) min;
 		double pixelsPerValue = trackLength / valueRange;
@@ -1537,8 +2083,8 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 	 *            the height of the track
 	 */
 	protected int yPositionForValue(int value, int trackY, int trackHeight) {
-		int min = slider.getMinimum();
-		int max = slider.getMaximum();
+		int min = slider.getVisibleMinimum();
+		int max = slider.getVisibleMaximum();
 		double valueRange = (double) max - (double) min;
 		double pixelsPerValue = trackHeight / valueRange;
 		int trackBottom = trackY + (trackHeight - 1);
@@ -1566,8 +2112,8 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 	 */
 	protected int valueForYPosition(int yPos) {
 		int value;
-		final int minValue = slider.getMinimum();
-		final int maxValue = slider.getMaximum();
+		final int minValue = slider.getVisibleMinimum();
+		final int maxValue = slider.getVisibleMaximum();
 		final int trackLength = trackRect.height;
 		final int trackTop = trackRect.y;
 		final int trackBottom = trackRect.y + (trackRect.height - 1);
@@ -1598,8 +2144,8 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 	 */
 	protected int valueForXPosition(int xPos) {
 		int value;
-		final int minValue = slider.getMinimum();
-		final int maxValue = slider.getMaximum();
+		final int minValue = slider.getVisibleMinimum();
+		final int maxValue = slider.getVisibleMaximum();
 		final int trackLength = trackRect.width;
 		final int trackLeft = trackRect.x;
 		final int trackRight = trackRect.x + (trackRect.width - 1);
@@ -1657,10 +2203,28 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 	protected class ChangeHandler implements ChangeListener {
 		@Override
 		public void stateChanged(ChangeEvent e) {
-			if (!isDragging) {
-				calculateThumbLocation();
-				calculateRangeTrackRect();
+			boolean rangeChanged = slider.getMinimum() != layoutMinimum
+					|| slider.getMaximum() != layoutMaximum;
+			if (rangeChanged) {
+				invalidateLayoutCaches();
+			}
+			if (isDragging) {
+				return;
+			}
+			if (!slider.isShowing()) {
+				// Sliders sharing a model may be hidden, for example on
+				// another tab; catch up when painted.
+				thumbLocationStale = true;
+				return;
+			}
+			thumbLocationStale = false;
+			Rectangle damage = getValueRepaintBounds();
+			calculateThumbLocation();
+			calculateRangeTrackRect();
+			if (rangeChanged) {
 				slider.repaint();
+			} else {
+				slider.repaint(damage.union(getValueRepaintBounds()));
 			}
 		}
 	}
@@ -1682,7 +2246,7 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 			}
 
 			offset = 0;
-			scrollTimer.stop();
+			stopAutoScroll();
 
 			isDragging = false;
 			slider.setValueIsAdjusting(false);
@@ -1770,9 +2334,7 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 				scrollDueToClickInTrack(direction);
 			}
 			if (shouldScroll(direction)) {
-				scrollTimer.stop();
-				scrollListener.setDirection(direction);
-				scrollTimer.start();
+				startAutoScroll(direction);
 			}
 		}
 
@@ -1807,6 +2369,24 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 			return true;
 		}
 
+		/**
+		 * Zooms a zoomable slider in or out around the pointer, a fifth of
+		 * the visible range per notch.
+		 */
+		@Override
+		public void mouseWheelMoved(MouseWheelEvent e) {
+			if (!slider.isEnabled() || !slider.isZoomable()) {
+				return;
+			}
+			int anchor;
+			if (slider.getOrientation() == JSlider.HORIZONTAL)
+				anchor = valueForXPosition(e.getX());
+			else
+				anchor = valueForYPosition(e.getY());
+			slider.zoom(Math.pow(1.25, e.getPreciseWheelRotation()), anchor);
+			e.consume();
+		}
+
 		@Override
 		public void mouseDragged(MouseEvent e) {
 			if (!slider.isEnabled()) {
@@ -1912,7 +2492,7 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 				scrollByUnit(direction);
 			}
 			if (!trackListener.shouldScroll(direction)) {
-				((Timer) e.getSource()).stop();
+				stopAutoScroll();
 			}
 		}
 	}
@@ -1923,7 +2503,8 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 	protected class ComponentHandler extends ComponentAdapter {
 		@Override
 		public void componentResized(ComponentEvent e) {
-			calculateGeometry();
+			if (!isLaidOutForSize())
+				calculateGeometry();
 			slider.repaint();
 		}
 	}
@@ -1934,6 +2515,7 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 	protected class FocusHandler implements FocusListener {
 		@Override
 		public void focusGained(FocusEvent e) {
+			installFocusInputMap();
 			slider.repaint();
 		}
 
@@ -1956,24 +2538,46 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 					|| propertyName == "paintLabels"
 					|| propertyName == "Slider.paintThumbArrowShape") {
 				checkedLabelBaselines = false;
+				invalidateLayoutCaches();
 				calculateGeometry();
 				slider.repaint();
 			} else if (propertyName == "componentOrientation") {
+				invalidateLayoutCaches();
 				calculateGeometry();
 				slider.repaint();
-				InputMap km = getInputMap(JComponent.WHEN_FOCUSED, slider);
-				SwingUtilities.replaceUIInputMap(slider,
-						JComponent.WHEN_FOCUSED, km);
+				if (SwingUtilities.getUIInputMap(slider,
+						JComponent.WHEN_FOCUSED) != null) {
+					SwingUtilities.replaceUIInputMap(slider,
+							JComponent.WHEN_FOCUSED, null);
+					installFocusInputMap();
+				}
 			} else if (propertyName == "model") {
 				((BoundedRangeModel) e.getOldValue())
 						.removeChangeListener(changeListener);
 				((BoundedRangeModel) e.getNewValue())
 						.addChangeListener(changeListener);
+				invalidateLayoutCaches();
 				calculateThumbLocation();
 				slider.repaint();
 			} else if (propertyName == "lowerThumbFocused") {
 				slider.repaint(lowerThumbRect);
 				slider.repaint(upperThumbRect);
+			} else if (propertyName == "border") {
+				invalidateLayoutCaches();
+			} else if (propertyName == "visibleMinimum"
+					|| propertyName == "visibleMaximum") {
+				// The vertical baseline maps a value through the visible range.
+				invalidateLayoutCaches();
+				calculateThumbLocation();
+				calculateRangeTrackRect();
+				slider.repaint();
+			} else if (propertyName == "zoomable") {
+				slider.removeMouseWheelListener(trackListener);
+				if (slider.isZoomable())
+					slider.addMouseWheelListener(trackListener);
+			} else if (propertyName == "graphicsConfiguration") {
+				// Moved to another screen; the device scale may differ.
+				slider.repaint();
 			}
 		}
 	}
@@ -2015,6 +2619,10 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 		}
 	}
 
+	/**
+	 * The action for the scroll key bindings, created by
+	 * {@link #createKeyboardAction}.
+	 */
 	@SuppressWarnings("serial")
 	protected class ScrollActions extends AbstractAction {
 		ScrollActions() {
@@ -2045,6 +2653,10 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 		}
 	}
 
+	/**
+	 * The action for the tab key bindings, created by
+	 * {@link #createKeyboardAction}.
+	 */
 	@SuppressWarnings("serial")
 	protected class TabActions extends AbstractAction {
 		protected final boolean control;
@@ -2071,4 +2683,128 @@ public class BasicRangeSliderUI extends RangeSliderUI {
 			}
 		}
 	}
+
+	/**
+	 * Creates the action for the key binding {@code name} of this delegate's
+	 * slider: a {@link TabActions} for {@code "tab"}, {@code "shifttab"},
+	 * {@code "ctrltab"} and {@code "ctrlshifttab"}, and a
+	 * {@link ScrollActions} for the scroll names such as
+	 * {@link #POSITIVE_UNIT_NAME}. Called for each name the first time its
+	 * key is pressed; the action map shared by all range sliders then hands
+	 * the event to the action returned, if it is enabled. Subclasses may
+	 * override this to change or add bindings; returning {@code null}
+	 * disables one.
+	 */
+	protected Action createKeyboardAction(String name) {
+		switch (name) {
+		case "tab":
+			return new TabActions(false, false);
+		case "shifttab":
+			return new TabActions(false, true);
+		case "ctrltab":
+			return new TabActions(true, false);
+		case "ctrlshifttab":
+			return new TabActions(true, true);
+		default:
+			return new ScrollActions(name);
+		}
+	}
+
+	/**
+	 * Performs the action for the key binding {@code name}, creating it
+	 * first if needed.
+	 */
+	private void performKeyboardAction(String name, ActionEvent e) {
+		if (keyboardActions == null)
+			keyboardActions = new ActionMap();
+		Action action = keyboardActions.get(name);
+		if (action == null) {
+			action = createKeyboardAction(name);
+			if (action == null)
+				return;
+			keyboardActions.put(name, action);
+		}
+		if (action.isEnabled())
+			action.actionPerformed(e);
+	}
+
+	/**
+	 * A keyboard action shared by all range sliders. The target slider is the
+	 * source of the event, and its delegate's own action does the work.
+	 */
+	@SuppressWarnings("serial")
+	private static class Actions extends AbstractAction {
+		Actions(String name) {
+			super(name);
+		}
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			Object source = e.getSource();
+			if (source instanceof RangeSlider) {
+				Object ui = ((RangeSlider) source).getUI();
+				if (ui instanceof BasicRangeSliderUI) {
+					String name = (String) getValue(NAME);
+					((BasicRangeSliderUI) ui).performKeyboardAction(name, e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * An action map that creates its actions the first time it is queried,
+	 * that is the first time a key is pressed in a focused range slider.
+	 */
+	@SuppressWarnings("serial")
+	private static class LazyActionMap extends ActionMapUIResource {
+		private boolean loaded;
+
+		private void load() {
+			if (loaded)
+				return;
+			loaded = true;
+			for (String name : new String[] { POSITIVE_UNIT_NAME,
+					POSITIVE_BLOCK_NAME, NEGATIVE_UNIT_NAME,
+					NEGATIVE_BLOCK_NAME, MIN_SCROLL_NAME, MAX_SCROLL_NAME,
+					"tab", "shifttab", "ctrltab", "ctrlshifttab" }) {
+				super.put(name, new Actions(name));
+			}
+		}
+
+		@Override
+		public Action get(Object key) {
+			load();
+			return super.get(key);
+		}
+
+		@Override
+		public void put(Object key, Action action) {
+			load();
+			super.put(key, action);
+		}
+
+		@Override
+		public void remove(Object key) {
+			load();
+			super.remove(key);
+		}
+
+		@Override
+		public Object[] keys() {
+			load();
+			return super.keys();
+		}
+
+		@Override
+		public Object[] allKeys() {
+			load();
+			return super.allKeys();
+		}
+
+		@Override
+		public int size() {
+			load();
+			return super.size();
+		}
+	}
 }
@@ -0,0 +1,215 @@
+package slider;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.Timer;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+/**
+ * When a change listener added with
+ * {@link RangeSlider#addChangeListener(ChangeListener, ChangeDeliveryPolicy)}
+ * hears of the range changing.
+ * <p>
+ * Whatever the policy, the listener is told only of ranges, not of each step
+ * on the way: when notified, it reads the latest range from the slider, and
+ * it is not notified again until the range changes. A committed range, one
+ * set while the value is not adjusting, is delivered right away, including
+ * the range at the end of a drag, even if the drag left it unchanged. The
+ * release of a thumb thus notifies the listener once if it has not seen the
+ * final range as committed, and never otherwise. Nothing is allocated per
+ * change.
+ *
+ * @author johnchen902
+ */
+public final class ChangeDeliveryPolicy {
+
+	private static final int EVERY_CHANGE_KIND = 0;
+	private static final int ON_RELEASE_KIND = 1;
+	private static final int RATE_LIMITED_KIND = 2;
+	private static final int IDLE_KIND = 3;
+
+	/**
+	 * Delivers each new range, during a drag too.
+	 */
+	public static final ChangeDeliveryPolicy EVERY_CHANGE = new ChangeDeliveryPolicy(
+			EVERY_CHANGE_KIND, 0);
+
+	/**
+	 * Delivers committed ranges only, such as the range at the end of a
+	 * drag.
+	 */
+	public static final ChangeDeliveryPolicy ON_RELEASE = new ChangeDeliveryPolicy(
+			ON_RELEASE_KIND, 0);
+
+	/**
+	 * Returns a policy delivering a range during a drag at most
+	 * {@code perSecond} times a second. The first change after a quiet
+	 * spell is delivered right away, and the latest range is delivered once
+	 * the interval has passed.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if {@code perSecond} is not positive
+	 */
+	public static ChangeDeliveryPolicy rateLimited(int perSecond) {
+		if (perSecond <= 0)
+			throw new IllegalArgumentException("perSecond " + perSecond);
+		return new ChangeDeliveryPolicy(RATE_LIMITED_KIND,
+				1000000000L / perSecond);
+	}
+
+	/**
+	 * Returns a policy delivering a range during a drag once it has not
+	 * changed for {@code millis} milliseconds.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if {@code millis} is negative
+	 */
+	public static ChangeDeliveryPolicy idle(int millis) {
+		if (millis < 0)
+			throw new IllegalArgumentException("millis " + millis);
+		return new ChangeDeliveryPolicy(IDLE_KIND, millis * 1000000L);
+	}
+
+	private final int kind;
+	private final long nanos;
+
+	private ChangeDeliveryPolicy(int kind, long nanos) {
+		this.kind = kind;
+		this.nanos = nanos;
+	}
+
+	/**
+	 * Returns a listener delivering the changes of {@code slider} to
+	 * {@code delegate} by this policy.
+	 */
+	Delivery wrap(RangeSlider slider, ChangeListener delegate) {
+		return new Delivery(slider, delegate, this);
+	}
+
+	/**
+	 * A listener delivering changes by a policy, added to the slider in
+	 * place of the listener it delivers to.
+	 */
+	static final class Delivery implements ChangeListener, ActionListener {
+		final ChangeListener delegate;
+		private final RangeSlider slider;
+		private final ChangeDeliveryPolicy policy;
+		private final ChangeEvent event;
+		private final Timer timer;
+
+		/**
+		 * The range delivered last, whether it was committed, and when it was
+		 * delivered and when the range last changed, by
+		 * {@link System#nanoTime}.
+		 */
+		private int lowerValue, upperValue;
+		private boolean committed;
+		private long deliveredAt, changedAt;
+
+		Delivery(RangeSlider slider, ChangeListener delegate,
+				ChangeDeliveryPolicy policy) {
+			if (delegate == null)
+				throw new NullPointerException("delegate");
+			this.slider = slider;
+			this.delegate = delegate;
+			this.policy = policy;
+			event = new ChangeEvent(slider);
+			if (policy.kind == RATE_LIMITED_KIND || policy.kind == IDLE_KIND) {
+				timer = new Timer(0, this);
+				timer.setRepeats(false);
+				timer.setCoalesce(false);
+			} else {
+				timer = null;
+			}
+			// The listener is taken to know the range it is added at.
+			lowerValue = slider.getLowerValue();
+			upperValue = slider.getUpperValue();
+			committed = !slider.getValueIsAdjusting();
+			deliveredAt = System.nanoTime() - policy.nanos;
+		}
+
+		@Override
+		public void stateChanged(ChangeEvent e) {
+			if (!slider.getValueIsAdjusting()) {
+				if (timer != null)
+					timer.stop();
+				deliver();
+				return;
+			}
+			switch (policy.kind) {
+			case EVERY_CHANGE_KIND:
+				deliver();
+				break;
+			case RATE_LIMITED_KIND:
+				if (!timer.isRunning() && isNew()) {
+					long wait = deliveredAt + policy.nanos - System.nanoTime();
+					if (wait <= 0)
+						deliver();
+					else
+						schedule(wait);
+				}
+				break;
+			case IDLE_KIND:
+				if (isNew()) {
+					changedAt = System.nanoTime();
+					if (!timer.isRunning())
+						schedule(policy.nanos);
+				}
+				break;
+			}
+		}
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			if (policy.kind == IDLE_KIND) {
+				// The timer is not restarted for every change; it sleeps
+				// again for what is left of the idle time instead.
+				long wait = changedAt + policy.nanos - System.nanoTime();
+				if (wait > 0) {
+					schedule(wait);
+					return;
+				}
+			}
+			deliver();
+		}
+
+		private void schedule(long nanos) {
+			timer.setInitialDelay((int) Math.min(Integer.MAX_VALUE,
+					(nanos + 999999) / 1000000));
+			timer.start();
+		}
+
+		/**
+		 * Returns whether the range differs from the one delivered last.
+		 */
+		private boolean isNew() {
+			return slider.getLowerValue() != lowerValue
+					|| slider.getUpperValue() != upperValue;
+		}
+
+		/**
+		 * Notifies the delegate unless it has seen the current range already,
+		 * or has seen it as committed if it is.
+		 */
+		private void deliver() {
+			boolean nowCommitted = !slider.getValueIsAdjusting();
+			if (!isNew() && (committed || !nowCommitted))
+				return;
+			lowerValue = slider.getLowerValue();
+			upperValue = slider.getUpperValue();
+			committed = nowCommitted;
+			deliveredAt = System.nanoTime();
+			delegate.stateChanged(event);
+		}
+
+		/**
+		 * Stops delivering pending changes.
+		 */
+		void dispose() {
+			if (timer != null)
+				timer.stop();
+		}
+	}
+}
@@ -0,0 +1,428 @@
+package slider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.EventListenerList;
+
+/**
+ * Filters the rows of a table of integer columns by several range sliders
+ * at once, one per column, and keeps for each slider a histogram of its
+ * column over the rows that pass the other sliders. Dragging one slider thus
+ * shows on every other slider how the rows it leaves are distributed.
+ * <p>
+ * Each row has a mask with a bit set for each slider that filters it out.
+ * Each column is sorted into a permutation of the rows, so that the rows in
+ * the range of its slider form one run of it. When a slider moves, the runs
+ * of rows entering and leaving its range are found by binary search and only
+ * those rows are visited: a row changes the histogram of another column only
+ * if no slider but those two filters it out, which its mask tells at once.
+ * The bins of each row in every column are kept side by side, so that such a
+ * row updates all of the histograms from one place in memory. A drag
+ * therefore costs work in proportion to the rows crossing the bounds of the
+ * slider, not to the number of rows. A change crossing a large part of the
+ * rows counts the histograms again in one pass instead.
+ * <p>
+ * The histograms are {@link HistogramBackdrop}s, set on the sliders as their
+ * track backdrops and published at most once per frame. Each has one bin per
+ * value of the range of its slider when the column was added, or 4096 bins
+ * if the range is wider; values outside that range are filtered out but not
+ * counted. Adding columns is cheap until the histograms are next needed,
+ * which counts them all at once.
+ * <p>
+ * There can be at most 32 columns. Each column takes an {@code int} and a
+ * {@code char} per row, besides the column itself, which is not copied. This
+ * class must be used on the event dispatch thread.
+ *
+ * @author johnchen902
+ */
+public class Crossfilter {
+
+	private static final int BINS = 4096;
+	private static final char NO_BIN = Character.MAX_VALUE;
+	private static final double HEADROOM = 1.25;
+
+	/**
+	 * The fraction of the rows above which a change counts the histograms
+	 * again rather than updating them row by row.
+	 */
+	private static final int RECOUNT_FRACTION = 8;
+
+	private final int rowCount;
+	private final int[] masks;
+	private final List<Dimension> dimensions = new ArrayList<>();
+
+	/**
+	 * The bin of each row in each column, {@code bins[row * stride + i]}
+	 * being that in column {@code i}, or {@code null} until needed.
+	 */
+	private char[] bins;
+	private int stride;
+
+	/**
+	 * The histograms and the number of rows selected, valid unless
+	 * {@code stale}.
+	 */
+	private int selectedCount;
+	private boolean stale;
+
+	private final EventListenerList listenerList = new EventListenerList();
+	private ChangeEvent changeEvent;
+
+	private final FrameCoalescer publisher = new FrameCoalescer(
+			new Runnable() {
+				@Override
+				public void run() {
+					count();
+					for (Dimension dimension : dimensions)
+						dimension.publish();
+				}
+			});
+
+	/**
+	 * Creates a crossfilter over {@code rowCount} rows, with no columns, so
+	 * that every row is selected.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if {@code rowCount} is negative
+	 */
+	public Crossfilter(int rowCount) {
+		if (rowCount < 0)
+			throw new IllegalArgumentException("rowCount < 0");
+		this.rowCount = rowCount;
+		masks = new int[rowCount];
+		selectedCount = rowCount;
+	}
+
+	/**
+	 * Adds a column filtered by {@code slider}, and sets the histogram of the
+	 * column as the track backdrop of the slider.
+	 *
+	 * @param values
+	 *            the value of each row, not copied; it must not change
+	 * @throws IllegalArgumentException
+	 *             if {@code values} does not have one value per row
+	 * @throws IllegalStateException
+	 *             if there are already 32 columns
+	 */
+	public Dimension addDimension(RangeSlider slider, int[] values) {
+		if (values.length != rowCount)
+			throw new IllegalArgumentException("values.length != rowCount");
+		if (dimensions.size() == Integer.SIZE)
+			throw new IllegalStateException("too many dimensions");
+		Dimension dimension = new Dimension(slider, values,
+				dimensions.size());
+		dimensions.add(dimension);
+		int bit = dimension.bit;
+		for (int p = 0; p < dimension.from; p++)
+			masks[dimension.order[p]] |= bit;
+		for (int p = dimension.to; p < rowCount; p++)
+			masks[dimension.order[p]] |= bit;
+		bins = null;
+		stale = true;
+		publisher.request();
+		slider.setTrackBackdrop(dimension.backdrop);
+		fireStateChanged();
+		return dimension;
+	}
+
+	/**
+	 * Returns the columns in the order they were added.
+	 */
+	public List<Dimension> getDimensions() {
+		return Collections.unmodifiableList(dimensions);
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Returns the number of rows that pass every slider.
+	 */
+	public int getSelectedCount() {
+		count();
+		return selectedCount;
+	}
+
+	/**
+	 * Returns whether {@code row} passes every slider.
+	 */
+	public boolean isSelected(int row) {
+		return masks[row] == 0;
+	}
+
+	/**
+	 * Counts the histograms again if they are stale, first binning the rows
+	 * if columns were added.
+	 */
+	private void count() {
+		if (!stale)
+			return;
+		if (bins == null) {
+			stride = dimensions.size();
+			bins = new char[rowCount * stride];
+			for (int i = 0; i < stride; i++) {
+				Dimension dimension = dimensions.get(i);
+				for (int row = 0, k = i; row < rowCount; row++, k += stride)
+					bins[k] = dimension.bin(dimension.values[row]);
+			}
+		}
+		selectedCount = 0;
+		for (Dimension dimension : dimensions) {
+			Arrays.fill(dimension.counts, 0);
+			dimension.dirtyAll = true;
+		}
+		for (int row = 0; row < rowCount; row++)
+			count(row, masks[row], 1, -1);
+		stale = false;
+	}
+
+	/**
+	 * Adds {@code delta} to the histograms that count {@code row}, if its
+	 * mask is {@code mask}: all of them but that of column {@code skip} if no
+	 * slider filters it out, or the histogram of the only slider that does.
+	 */
+	private void count(int row, int mask, int delta, int skip) {
+		int base = row * stride;
+		if (mask == 0) {
+			selectedCount += delta;
+			for (int i = 0; i < stride; i++) {
+				char bin = bins[base + i];
+				if (i != skip && bin != NO_BIN)
+					dimensions.get(i).add(bin, delta);
+			}
+		} else if ((mask & (mask - 1)) == 0) {
+			int i = Integer.numberOfTrailingZeros(mask);
+			char bin = bins[base + i];
+			if (bin != NO_BIN)
+				dimensions.get(i).add(bin, delta);
+		}
+	}
+
+	/**
+	 * Stops following the sliders of all the columns. The histograms stay
+	 * set on the sliders as they last were.
+	 */
+	public void dispose() {
+		for (Dimension dimension : dimensions)
+			dimension.slider.removeChangeListener(dimension.sliderListener);
+	}
+
+	/**
+	 * Adds a listener notified when the rows selected change.
+	 */
+	public void addChangeListener(ChangeListener l) {
+		listenerList.add(ChangeListener.class, l);
+	}
+
+	/**
+	 * Removes a listener added by {@link #addChangeListener}.
+	 */
+	public void removeChangeListener(ChangeListener l) {
+		listenerList.remove(ChangeListener.class, l);
+	}
+
+	private void fireStateChanged() {
+		Object[] listeners = listenerList.getListenerList();
+		for (int i = listeners.length - 2; i >= 0; i -= 2) {
+			if (listeners[i] == ChangeListener.class) {
+				if (changeEvent == null)
+					changeEvent = new ChangeEvent(this);
+				((ChangeListener) listeners[i + 1]).stateChanged(changeEvent);
+			}
+		}
+	}
+
+	/**
+	 * A column of a crossfilter, filtered by a slider.
+	 */
+	public final class Dimension {
+
+		private final RangeSlider slider;
+		private final int[] values;
+		private final int index, bit;
+
+		/**
+		 * The rows sorted by value, ties in row order, and the part of them
+		 * in the range last applied.
+		 */
+		private final int[] order;
+		private int lowerValue, upperValue;
+		private int from, to;
+
+		/**
+		 * The histogram over the rows no other slider filters out, and the
+		 * bins changed since it was last published.
+		 */
+		private final int min, max;
+		private final double scale;
+		private final long[] counts;
+		private final HistogramBackdrop backdrop;
+		private int dirtyFrom = Integer.MAX_VALUE, dirtyTo = -1;
+		private boolean dirtyAll;
+
+		private final ChangeListener sliderListener = new ChangeListener() {
+			@Override
+			public void stateChanged(ChangeEvent e) {
+				rangeChanged();
+			}
+		};
+
+		Dimension(RangeSlider slider, int[] values, int index) {
+			this.slider = slider;
+			this.values = values;
+			this.index = index;
+			bit = 1 << index;
+			order = sort(values);
+			min = slider.getMinimum();
+			max = slider.getMaximum();
+			long span = (long) max - min + 1;
+			int bins = (int) Math.min(BINS, span);
+			scale = (double) bins / span;
+			counts = new long[bins];
+			backdrop = new HistogramBackdrop(new HistogramBackdrop.Fine(
+					min - 0.5, max + 0.5, counts.clone()), HEADROOM);
+			lowerValue = slider.getLowerValue();
+			upperValue = slider.getUpperValue();
+			from = search(lowerValue, false);
+			to = search(upperValue, true);
+			slider.addChangeListener(sliderListener);
+		}
+
+		public RangeSlider getSlider() {
+			return slider;
+		}
+
+		/**
+		 * Returns the histogram of this column over the rows that pass the
+		 * other sliders.
+		 */
+		public HistogramBackdrop getBackdrop() {
+			return backdrop;
+		}
+
+		/**
+		 * Returns the count of {@code value} in the histogram, or of the bin
+		 * holding it if bins hold several values.
+		 */
+		public long getCount(int value) {
+			char bin = bin(value);
+			if (bin == NO_BIN)
+				return 0;
+			count();
+			return counts[bin];
+		}
+
+		char bin(int value) {
+			if (value < min || value > max)
+				return NO_BIN;
+			return (char) Math.min(counts.length - 1,
+					(int) (((long) value - min) * scale));
+		}
+
+		void add(int bin, int delta) {
+			counts[bin] += delta;
+			dirtyFrom = Math.min(dirtyFrom, bin);
+			dirtyTo = Math.max(dirtyTo, bin);
+		}
+
+		/**
+		 * Returns the number of rows whose value is less than {@code bound},
+		 * or not greater than it if {@code inclusive}.
+		 */
+		private int search(int bound, boolean inclusive) {
+			int low = 0, high = order.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				int value = values[order[mid]];
+				if (inclusive ? value <= bound : value < bound)
+					low = mid + 1;
+				else
+					high = mid;
+			}
+			return low;
+		}
+
+		/**
+		 * Applies the range of the slider, visiting the rows that entered
+		 * or left it.
+		 */
+		private void rangeChanged() {
+			int lower = slider.getLowerValue();
+			int upper = slider.getUpperValue();
+			if (lower == lowerValue && upper == upperValue)
+				return;
+			int oldFrom = from, oldTo = to;
+			lowerValue = lower;
+			upperValue = upper;
+			from = search(lower, false);
+			to = search(upper, true);
+			int[] runs;
+			if (oldTo <= from || to <= oldFrom)
+				runs = new int[] { oldFrom, oldTo, from, to };
+			else
+				runs = new int[] { Math.min(oldFrom, from),
+						Math.max(oldFrom, from), Math.min(oldTo, to),
+						Math.max(oldTo, to) };
+			int changes = runs[1] - runs[0] + runs[3] - runs[2];
+			if (changes == 0)
+				return;
+			if (changes > rowCount / RECOUNT_FRACTION)
+				stale = true;
+			for (int r = 0; r < runs.length; r += 2) {
+				for (int p = runs[r]; p < runs[r + 1]; p++) {
+					int row = order[p];
+					int mask = masks[row] ^ bit;
+					masks[row] = mask;
+					// The histogram of this column ignores its own slider.
+					if (!stale)
+						count(row, mask & ~bit, (mask & bit) == 0 ? 1 : -1,
+								index);
+				}
+			}
+			publisher.request();
+			fireStateChanged();
+		}
+
+		/**
+		 * Publishes the histogram if it changed since the last publish.
+		 */
+		void publish() {
+			if (!dirtyAll && dirtyTo < 0)
+				return;
+			double fromValue, toValue;
+			if (dirtyAll) {
+				fromValue = Double.NEGATIVE_INFINITY;
+				toValue = Double.POSITIVE_INFINITY;
+			} else {
+				double binWidth = ((double) max - min + 1) / counts.length;
+				fromValue = min - 0.5 + dirtyFrom * binWidth;
+				toValue = min - 0.5 + (dirtyTo + 1) * binWidth;
+			}
+			dirtyFrom = Integer.MAX_VALUE;
+			dirtyTo = -1;
+			dirtyAll = false;
+			backdrop.publish(new HistogramBackdrop.Fine(min - 0.5, max + 0.5,
+					counts.clone()), fromValue, toValue);
+		}
+	}
+
+	/**
+	 * Returns the rows sorted by their value, ties in row order.
+	 */
+	private static int[] sort(int[] values) {
+		long[] keys = new long[values.length];
+		for (int row = 0; row < values.length; row++)
+			keys[row] = (long) values[row] << 32 | row;
+		Arrays.sort(keys);
+		int[] order = new int[values.length];
+		for (int p = 0; p < order.length; p++)
+			order[p] = (int) keys[p];
+		return order;
+	}
+}
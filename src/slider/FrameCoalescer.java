@@ -0,0 +1,47 @@
+package slider;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.Timer;
+
+/**
+ * Runs a task on the event dispatch thread at most once per frame, however
+ * often it is requested and from whatever thread. The first request after
+ * the task has started schedules the next run, one frame later.
+ *
+ * @author johnchen902
+ */
+final class FrameCoalescer {
+
+	/**
+	 * The least time between two runs, in milliseconds.
+	 */
+	static final int FRAME = 16;
+
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+	private final Timer timer;
+
+	FrameCoalescer(final Runnable task) {
+		timer = new Timer(FRAME, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				scheduled.set(false);
+				task.run();
+			}
+		});
+		timer.setRepeats(false);
+		// A coalescing timer drops a start made while its action is still
+		// running; the scheduled flag already keeps runs from piling up.
+		timer.setCoalesce(false);
+	}
+
+	/**
+	 * Schedules a run of the task unless one is pending.
+	 */
+	void request() {
+		if (scheduled.compareAndSet(false, true))
+			timer.start();
+	}
+}
@@ -0,0 +1,562 @@
+package slider;
+
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.util.concurrent.RecursiveTask;
+
+import javax.swing.JSlider;
+
+/**
+ * A track backdrop showing the density of a column of data as a histogram,
+ * with the bars between the thumbs highlighted.
+ * <p>
+ * The data is scanned once, in the constructor, into fine bins over the given
+ * domain: one per element, but no fewer than 1024 and no more than 65536.
+ * Integral data with fewer distinct values in the domain gets one fine bin per
+ * value. Large columns are scanned in parallel on a fork/join pool, each task
+ * counting at least four elements per fine bin. The fine bins are summed
+ * pairwise into coarser and coarser levels, so that the count of any run of
+ * fine bins takes a few additions per level. The bars actually painted are
+ * merged from those levels for the length of the track in pixels, only where
+ * the track shows them, and kept until that length or the visible range of the
+ * slider changes. Resizing or zooming the slider therefore costs work in
+ * proportion to the bars painted, and never rescans the data. Values outside
+ * the domain, and {@code NaN}, are not counted.
+ * <p>
+ * The domain is in the units of the slider: the histogram is painted where
+ * the slider would place its values. A backdrop can be created on any thread
+ * and shared by several sliders. For data that keeps arriving, see
+ * {@link StreamingHistogramBackdrop}.
+ *
+ * @author johnchen902
+ */
+public class HistogramBackdrop extends AbstractTrackBackdrop {
+
+	/**
+	 * The most and the fewest fine bins.
+	 */
+	private static final int FINE_BINS = 1 << 16, MIN_FINE_BINS = 1 << 10;
+
+	/**
+	 * The fewest elements per fine bin a fork/join task counts, so that the
+	 * counts each task allocates are not mostly empty.
+	 */
+	private static final int TASK_ELEMENTS_PER_BIN = 4;
+
+	/**
+	 * The fewest elements per fork/join task. Smaller columns are scanned on
+	 * the calling thread.
+	 */
+	private static final int SEQUENTIAL_THRESHOLD = 1 << 16;
+
+	private volatile Fine fine;
+
+	/**
+	 * Bars merged for the track lengths and visible ranges painted recently,
+	 * at most one per number of bars over the domain.
+	 */
+	private final Bins[] bins = new Bins[4];
+	private int nextBins;
+
+	/**
+	 * How much taller than the tallest bar the scale of the bars is made when
+	 * it has to change.
+	 */
+	private final double headroom;
+
+	private int barWidth = 3;
+
+	/**
+	 * Creates a histogram of the values of {@code data} from {@code min} to
+	 * {@code max} inclusive.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if {@code min} is greater than {@code max}
+	 */
+	public HistogramBackdrop(int[] data, int min, int max) {
+		this(bin(data, min, max), 1);
+	}
+
+	/**
+	 * Creates a histogram of the values of {@code data} from {@code min} to
+	 * {@code max} inclusive.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if {@code min} is greater than {@code max}
+	 */
+	public HistogramBackdrop(long[] data, long min, long max) {
+		this(bin(data, min, max), 1);
+	}
+
+	/**
+	 * Creates a histogram of the values of {@code data} from {@code min} to
+	 * {@code max} inclusive.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if {@code min} is not less than {@code max}
+	 */
+	public HistogramBackdrop(double[] data, double min, double max) {
+		this(bin(data, min, max), 1);
+	}
+
+	HistogramBackdrop(Fine fine, double headroom) {
+		this.fine = fine;
+		this.headroom = headroom;
+	}
+
+	private static Fine bin(int[] data, int min, int max) {
+		if (min > max)
+			throw new IllegalArgumentException("min > max");
+		long span = (long) max - min + 1;
+		int fineBins = (int) Math.min(fineBins(data.length), span);
+		return new Fine(min - 0.5, max + 0.5, bin(new IntBinTask(data, 0,
+				data.length, threshold(data.length, fineBins), min, max,
+				fineBins, (double) fineBins / span)));
+	}
+
+	private static Fine bin(long[] data, long min, long max) {
+		if (min > max)
+			throw new IllegalArgumentException("min > max");
+		double span = (double) max - min + 1;
+		int fineBins = (int) Math.min(fineBins(data.length), span);
+		return new Fine(min - 0.5, max + 0.5, bin(new LongBinTask(data, 0,
+				data.length, threshold(data.length, fineBins), min, max,
+				fineBins, fineBins / span)));
+	}
+
+	private static Fine bin(double[] data, double min, double max) {
+		if (!(min < max))
+			throw new IllegalArgumentException("!(min < max)");
+		int fineBins = fineBins(data.length);
+		return new Fine(min, max, bin(new DoubleBinTask(data, 0, data.length,
+				threshold(data.length, fineBins), min, max, fineBins,
+				fineBins / (max - min))));
+	}
+
+	/**
+	 * Returns the number of fine bins for {@code length} elements, before
+	 * integral domains narrower than that are taken into account.
+	 */
+	private static int fineBins(int length) {
+		return Math.max(MIN_FINE_BINS, Math.min(FINE_BINS, length));
+	}
+
+	private static int threshold(int length, int fineBins) {
+		return ParallelBuilds.threshold(length, Math.max(SEQUENTIAL_THRESHOLD,
+				TASK_ELEMENTS_PER_BIN * fineBins));
+	}
+
+	private static long[] bin(BinTask task) {
+		if (task.to - task.from <= task.threshold)
+			return task.compute();
+		return ParallelBuilds.invoke(task);
+	}
+
+	/**
+	 * Returns the width of a bar in pixels.
+	 */
+	public int getBarWidth() {
+		return barWidth;
+	}
+
+	/**
+	 * Sets the width of a bar in pixels. Bars are never narrower than one
+	 * fine bin, so they may come out wider, especially when the slider is
+	 * zoomed in. The default is 3.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if {@code barWidth} is not positive
+	 */
+	public void setBarWidth(int barWidth) {
+		if (barWidth <= 0)
+			throw new IllegalArgumentException("barWidth <= 0");
+		if (this.barWidth != barWidth) {
+			this.barWidth = barWidth;
+			fireStateChanged();
+		}
+	}
+
+	@Override
+	public void paint(Graphics g, RangeSlider slider, Rectangle track,
+			Rectangle range, int minPosition, int maxPosition) {
+		int min = slider.getVisibleMinimum();
+		int max = slider.getVisibleMaximum();
+		if (max <= min)
+			return;
+		Fine fine = this.fine;
+		double scale = (double) (maxPosition - minPosition) / (max - min);
+		double from = minPosition + (fine.start - min) * scale;
+		double to = minPosition + (fine.end - min) * scale;
+		if (Math.abs(to - from) < 1)
+			return;
+		int n = Math.max(1, Math.min(fine.counts.length,
+				(int) Math.abs(to - from) / barWidth));
+
+		// Only the bars over the track, which is all of them unless zoomed.
+		boolean horizontal = slider.getOrientation() == JSlider.HORIZONTAL;
+		double step = (to - from) / n;
+		double a = horizontal ? track.x : track.y;
+		double b = a + (horizontal ? track.width : track.height);
+		double t0 = (a - from) / step, t1 = (b - from) / step;
+		int first = (int) Math.max(0, Math.floor(Math.min(t0, t1)));
+		int last = (int) Math.min(n, Math.ceil(Math.max(t0, t1)));
+		if (first >= last)
+			return;
+		Bins bins = getBins(fine, n, first, last);
+		if (bins.ceiling == 0)
+			return;
+
+		g.setColor(colorFor(slider, getColor(), 0x50));
+		paintBars(g, slider, bins, track, from, to);
+		if (!slider.isEnabled())
+			return;
+
+		Graphics rangeGraphics = g.create();
+		try {
+			rangeGraphics.clipRect(range.x, range.y, range.width,
+					range.height);
+			rangeGraphics.setColor(colorFor(slider, getSelectionColor(), 0xB0));
+			paintBars(rangeGraphics, slider, bins, track, from, to);
+		} finally {
+			rangeGraphics.dispose();
+		}
+	}
+
+	/**
+	 * Paints the bars that intersect the clip, the domain running from the
+	 * position {@code from} to {@code to} along the track.
+	 */
+	private static void paintBars(Graphics g, RangeSlider slider, Bins bins,
+			Rectangle track, double from, double to) {
+		boolean horizontal = slider.getOrientation() == JSlider.HORIZONTAL;
+		Rectangle clip = g.getClipBounds();
+		double step = (to - from) / bins.n;
+		int first = bins.first, last = bins.first + bins.densities.length;
+		if (clip != null) {
+			double a = horizontal ? clip.x : clip.y;
+			double b = horizontal ? clip.x + clip.width : clip.y + clip.height;
+			double t0 = (a - from) / step, t1 = (b - from) / step;
+			first = (int) Math.max(first, Math.floor(Math.min(t0, t1)));
+			last = (int) Math.min(last, Math.ceil(Math.max(t0, t1)) + 1);
+		}
+		int depth = horizontal ? track.height : track.width;
+		for (int i = first; i < last; i++) {
+			int extent = (int) Math.round(bins.densities[i - bins.first]
+					/ bins.ceiling * depth);
+			if (extent == 0)
+				continue;
+			int p0 = (int) Math.round(from + step * i);
+			int p1 = (int) Math.round(from + step * (i + 1));
+			int p = Math.min(p0, p1);
+			int length = Math.abs(p1 - p0);
+			if (horizontal)
+				g.fillRect(p, track.y + track.height - extent, length, extent);
+			else
+				g.fillRect(track.x, p, extent, length);
+		}
+	}
+
+	/**
+	 * Returns the bars from {@code first} to {@code last} of {@code n} bars
+	 * over the domain, merged from {@code fine}, from the cache if it has
+	 * them.
+	 */
+	private Bins getBins(Fine fine, int n, int first, int last) {
+		synchronized (bins) {
+			Bins previous = null;
+			int slot = -1;
+			for (int i = 0; i < bins.length; i++) {
+				if (bins[i] != null && bins[i].n == n) {
+					if (bins[i].fine == fine && bins[i].first == first
+							&& bins[i].densities.length == last - first)
+						return bins[i];
+					previous = bins[i];
+					slot = i;
+				}
+			}
+			if (slot < 0) {
+				slot = nextBins;
+				nextBins = (nextBins + 1) % bins.length;
+			}
+			return bins[slot] = merge(fine, n, first, last, previous);
+		}
+	}
+
+	/**
+	 * Merges the bars from {@code first} to {@code last} of {@code n} bars
+	 * over the domain. A fine bin straddling two bars is split between them
+	 * in proportion. The scale of the bars is kept from {@code previous}
+	 * unless some bar outgrows it.
+	 */
+	private Bins merge(Fine fine, int n, int first, int last, Bins previous) {
+		double[] densities = new double[last - first];
+		double ratio = (double) fine.counts.length / n;
+		double max = 0;
+		for (int i = first; i < last; i++) {
+			double density = fine.count(i * ratio, (i + 1) * ratio);
+			densities[i - first] = density;
+			max = Math.max(max, density);
+		}
+		double ceiling = previous != null && max <= previous.ceiling
+				? previous.ceiling : max * headroom;
+		return new Bins(fine, n, first, densities, ceiling);
+	}
+
+	/**
+	 * Replaces the fine bins and notifies the listeners. If the scale of the
+	 * cached bars holds, only the values from {@code fromValue} to
+	 * {@code toValue}, widened to whole bars, are reported as changed;
+	 * otherwise, or if either value is infinite, the whole backdrop is.
+	 */
+	void publish(Fine fine, double fromValue, double toValue) {
+		boolean rescaled = false;
+		int fewestBars = Integer.MAX_VALUE;
+		synchronized (bins) {
+			for (int i = 0; i < bins.length; i++) {
+				if (bins[i] == null)
+					continue;
+				int n = bins[i].n;
+				int first = bins[i].first;
+				Bins merged = merge(fine, n, first,
+						first + bins[i].densities.length, bins[i]);
+				rescaled |= merged.ceiling != bins[i].ceiling;
+				fewestBars = Math.min(fewestBars, n);
+				bins[i] = merged;
+			}
+			this.fine = fine;
+		}
+		if (rescaled || fewestBars == Integer.MAX_VALUE
+				|| Double.isInfinite(toValue - fromValue)) {
+			fireStateChanged();
+		} else {
+			double widestBar = (fine.end - fine.start) / fewestBars;
+			fireStateChanged(fromValue - widestBar, toValue + widestBar);
+		}
+	}
+
+	/**
+	 * Fine bins over a domain, which runs from {@code start} to {@code end}
+	 * as a slider value, and their sums by twos, fours and so on up to all
+	 * of them. Immutable once published.
+	 */
+	static final class Fine {
+		final double start, end;
+		final long[] counts;
+		/**
+		 * The levels of the sums; {@code levels[k][i]} is the count of the
+		 * fine bins from {@code i << k} to {@code (i + 1) << k}.
+		 */
+		private final long[][] levels;
+
+		Fine(double start, double end, long[] counts) {
+			this.start = start;
+			this.end = end;
+			this.counts = counts;
+			int depth = 1;
+			for (int length = counts.length; length > 1; length -= length / 2)
+				depth++;
+			levels = new long[depth][];
+			levels[0] = counts;
+			for (int k = 1; k < depth; k++) {
+				long[] below = levels[k - 1];
+				long[] level = new long[(below.length + 1) / 2];
+				for (int i = 0; i < below.length; i++)
+					level[i / 2] += below[i];
+				levels[k] = level;
+			}
+		}
+
+		/**
+		 * Returns the count from fine bin position {@code from} to
+		 * {@code to}, which may fall inside bins; part of a bin counts in
+		 * proportion.
+		 */
+		double count(double from, double to) {
+			from = Math.max(0, from);
+			to = Math.min(counts.length, to);
+			if (!(from < to))
+				return 0;
+			int first = (int) from, last = (int) to;
+			if (first == last)
+				return counts[first] * (to - from);
+			double count = counts[first] * (first + 1 - from)
+					+ sum(first + 1, last);
+			if (last < counts.length)
+				count += counts[last] * (to - last);
+			return count;
+		}
+
+		/**
+		 * Returns the count of the fine bins from {@code from} to
+		 * {@code to}, taking at most two sums from each level.
+		 */
+		private long sum(int from, int to) {
+			long sum = 0;
+			for (int k = 0; from < to; k++) {
+				if ((from & 1) != 0)
+					sum += levels[k][from++];
+				if ((to & 1) != 0)
+					sum += levels[k][--to];
+				from >>= 1;
+				to >>= 1;
+			}
+			return sum;
+		}
+	}
+
+	/**
+	 * The bars from {@code first} of {@code n} bars over the domain, merged
+	 * from some fine bins and scaled so that {@code ceiling} fills the track.
+	 * Immutable, so that sliders painting on other threads can share it.
+	 */
+	private static final class Bins {
+		final Fine fine;
+		final int n, first;
+		final double[] densities;
+		final double ceiling;
+
+		Bins(Fine fine, int n, int first, double[] densities, double ceiling) {
+			this.fine = fine;
+			this.n = n;
+			this.first = first;
+			this.densities = densities;
+			this.ceiling = ceiling;
+		}
+	}
+
+	/**
+	 * Counts the elements from {@code from} to {@code to} into fine bins,
+	 * splitting into subtasks above {@code threshold} elements.
+	 */
+	private abstract static class BinTask extends RecursiveTask<long[]> {
+		private static final long serialVersionUID = 1L;
+
+		final int from, to, threshold, fineBins;
+
+		BinTask(int from, int to, int threshold, int fineBins) {
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+			this.fineBins = fineBins;
+		}
+
+		abstract BinTask subtask(int from, int to);
+
+		abstract void count(long[] counts);
+
+		@Override
+		protected long[] compute() {
+			if (to - from <= threshold) {
+				long[] counts = new long[fineBins];
+				count(counts);
+				return counts;
+			}
+			int mid = (from + to) >>> 1;
+			BinTask left = subtask(from, mid);
+			left.fork();
+			long[] counts = subtask(mid, to).compute();
+			long[] leftCounts = left.join();
+			for (int i = 0; i < counts.length; i++)
+				counts[i] += leftCounts[i];
+			return counts;
+		}
+	}
+
+	private static final class IntBinTask extends BinTask {
+		private static final long serialVersionUID = 1L;
+
+		private final int[] data;
+		private final int min, max;
+		private final double scale;
+
+		IntBinTask(int[] data, int from, int to, int threshold, int min,
+				int max, int fineBins, double scale) {
+			super(from, to, threshold, fineBins);
+			this.data = data;
+			this.min = min;
+			this.max = max;
+			this.scale = scale;
+		}
+
+		@Override
+		BinTask subtask(int from, int to) {
+			return new IntBinTask(data, from, to, threshold, min, max,
+					fineBins, scale);
+		}
+
+		@Override
+		void count(long[] counts) {
+			int last = fineBins - 1;
+			for (int i = from; i < to; i++) {
+				int v = data[i];
+				if (v >= min && v <= max)
+					counts[Math.min(last, (int) (((long) v - min) * scale))]++;
+			}
+		}
+	}
+
+	private static final class LongBinTask extends BinTask {
+		private static final long serialVersionUID = 1L;
+
+		private final long[] data;
+		private final long min, max;
+		private final double scale;
+
+		LongBinTask(long[] data, int from, int to, int threshold, long min,
+				long max, int fineBins, double scale) {
+			super(from, to, threshold, fineBins);
+			this.data = data;
+			this.min = min;
+			this.max = max;
+			this.scale = scale;
+		}
+
+		@Override
+		BinTask subtask(int from, int to) {
+			return new LongBinTask(data, from, to, threshold, min, max,
+					fineBins, scale);
+		}
+
+		@Override
+		void count(long[] counts) {
+			int last = fineBins - 1;
+			for (int i = from; i < to; i++) {
+				long v = data[i];
+				if (v >= min && v <= max)
+					counts[Math.min(last, (int) (((double) v - min) * scale))]++;
+			}
+		}
+	}
+
+	private static final class DoubleBinTask extends BinTask {
+		private static final long serialVersionUID = 1L;
+
+		private final double[] data;
+		private final double min, max, scale;
+
+		DoubleBinTask(double[] data, int from, int to, int threshold,
+				double min, double max, int fineBins, double scale) {
+			super(from, to, threshold, fineBins);
+			this.data = data;
+			this.min = min;
+			this.max = max;
+			this.scale = scale;
+		}
+
+		@Override
+		BinTask subtask(int from, int to) {
+			return new DoubleBinTask(data, from, to, threshold, min, max,
+					fineBins, scale);
+		}
+
+		@Override
+		void count(long[] counts) {
+			int last = fineBins - 1;
+			for (int i = from; i < to; i++) {
+				double v = data[i];
+				if (v >= min && v <= max)
+					counts[Math.min(last, (int) ((v - min) * scale))]++;
+			}
+		}
+	}
+}
@@ -75,15 +75,20 @@ public class MetalRangeSliderUI extends BasicRangeSliderUI {
 
 	@Override
 	public void installUI(JComponent c) {
+		super.installUI(c);
+
+		scrollListener.setScrollByBlock(false);
+	}
+
+	@Override
+	protected void installDefaults(JSlider slider) {
 		safeLength = (int) UIManager.get("Slider.majorTickLength");
 		horizThumbIcon = SAFE_HORIZ_THUMB_ICON = UIManager
 				.getIcon("Slider.horizontalThumbIcon");
 		vertThumbIcon = SAFE_VERT_THUMB_ICON = UIManager
 				.getIcon("Slider.verticalThumbIcon");
 
-		super.installUI(c);
-
-		scrollListener.setScrollByBlock(false);
+		super.installDefaults(slider);
 
 		prepareFilledSliderField();
 	}
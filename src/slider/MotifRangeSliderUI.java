@@ -44,6 +44,11 @@ public class MotifRangeSliderUI extends BasicRangeSliderUI {
 		return new MotifRangeSliderUI();
 	}
 
+	@Override
+	boolean paintsConcurrently() {
+		return getClass() == MotifRangeSliderUI.class;
+	}
+
 	@Override
 	protected Dimension getPreferredHorizontalSize() {
 		return PREFERRED_HORIZONTAL_SIZE;
@@ -0,0 +1,320 @@
+package slider;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.ComponentListener;
+import java.awt.image.BufferedImage;
+import java.util.Dictionary;
+import java.util.Enumeration;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.swing.BoundedRangeModel;
+import javax.swing.JLabel;
+import javax.swing.plaf.LabelUI;
+import javax.swing.plaf.synth.SynthUI;
+
+/**
+ * A RangeSlider that renders snapshots of itself into images on any thread.
+ * <p>
+ * Configure it like any other RangeSlider, then call {@link #render}. An
+ * OffscreenRangeSlider must not be added to a container. It never schedules
+ * repaints or revalidation, ignores component listeners, and lays itself
+ * out as soon as its size changes, so it does not need the event dispatch
+ * thread. Use each instance on one thread at a time. Separate instances can
+ * render at the same time on separate threads, even with a shared label
+ * table, as long as the labels are not changed meanwhile.
+ * <p>
+ * Sliders under the basic and Motif delegates paint fully in parallel.
+ * Other look and feels paint through state shared by all their components,
+ * such as the gradient painter of Metal and the region painters of Nimbus.
+ * Under those, {@code render} is serialized across all offscreen sliders, and
+ * snapshots should not be taken while the same look and feel is painting on
+ * screen.
+ *
+ * @author johnchen902
+ */
+@SuppressWarnings("serial")
+public class OffscreenRangeSlider extends RangeSlider {
+
+	private static final Object SHARED_PAINT_LOCK = new Object();
+
+	/**
+	 * The copy of each label of the label table painted in its place, created
+	 * on first use.
+	 */
+	private Map<JLabel, JLabel> labelCopies;
+	/**
+	 * The label table with the labels replaced by their copies, returned by
+	 * {@link #getLabelTable()} while rendering; {@code null} otherwise.
+	 */
+	private Hashtable<Object, Object> paintedLabels;
+
+	/**
+	 * Creates a range slider with the range 0 to 100 and an initial value of 33
+	 * and 66.
+	 */
+	public OffscreenRangeSlider() {
+		super();
+	}
+
+	/**
+	 * Creates a range slider using the specified orientation with the range
+	 * {@code 0} to {@code 100} and an initial value of {@code 33} and
+	 * {@code 66}.
+	 *
+	 * @see RangeSlider#RangeSlider(int)
+	 */
+	public OffscreenRangeSlider(int orientation) {
+		super(orientation);
+	}
+
+	/**
+	 * Creates a horizontal range slider using the specified min and max with an
+	 * initial value equal to the average of the min plus max, and an extent of
+	 * zero.
+	 *
+	 * @see RangeSlider#RangeSlider(int, int)
+	 */
+	public OffscreenRangeSlider(int min, int max) {
+		super(min, max);
+	}
+
+	/**
+	 * Creates a horizontal range slider using the specified min, max, lower
+	 * value and upper value.
+	 *
+	 * @see RangeSlider#RangeSlider(int, int, int, int)
+	 */
+	public OffscreenRangeSlider(int min, int max, int lowerValue,
+			int upperValue) {
+		super(min, max, lowerValue, upperValue);
+	}
+
+	/**
+	 * Creates a range slider with the specified orientation, min, max, lower
+	 * value and upper value.
+	 *
+	 * @see RangeSlider#RangeSlider(int, int, int, int, int)
+	 */
+	public OffscreenRangeSlider(int orientation, int min, int max,
+			int lowerValue, int upperValue) {
+		super(orientation, min, max, lowerValue, upperValue);
+	}
+
+	/**
+	 * Creates a horizontal range slider using the specified
+	 * BoundedRangeModel.
+	 *
+	 * @see RangeSlider#RangeSlider(BoundedRangeModel)
+	 */
+	public OffscreenRangeSlider(BoundedRangeModel brm) {
+		super(brm);
+	}
+
+	/**
+	 * Renders the slider into a new image of the given size.
+	 *
+	 * @return an image of type {@code TYPE_INT_ARGB}
+	 * @throws IllegalArgumentException
+	 *             if {@code width} or {@code height} is not positive
+	 */
+	public BufferedImage render(int width, int height) {
+		BufferedImage image = new BufferedImage(width, height,
+				BufferedImage.TYPE_INT_ARGB);
+		render(image);
+		return image;
+	}
+
+	/**
+	 * Renders the slider into {@code image}, resizing the slider to the size
+	 * of the image first. The image is cleared before painting, so it can be
+	 * reused between snapshots.
+	 */
+	public void render(BufferedImage image) {
+		render(image, new Rectangle(image.getWidth(), image.getHeight()));
+	}
+
+	/**
+	 * Renders only the part {@code clip} of the slider into {@code image},
+	 * leaving the rest of the image as it is.
+	 */
+	void render(BufferedImage image, Rectangle clip) {
+		if (paintsConcurrently()) {
+			try {
+				paintInto(image, clip);
+			} finally {
+				paintedLabels = null;
+			}
+		} else {
+			synchronized (SHARED_PAINT_LOCK) {
+				paintInto(image, clip);
+			}
+		}
+	}
+
+	private void paintInto(BufferedImage image, Rectangle clip) {
+		setSize(image.getWidth(), image.getHeight());
+		Graphics2D g = image.createGraphics();
+		try {
+			g.clip(clip);
+			g.setComposite(AlphaComposite.Clear);
+			g.fill(clip);
+			g.setComposite(AlphaComposite.SrcOver);
+			paint(g);
+		} finally {
+			g.dispose();
+		}
+	}
+
+	private boolean paintsConcurrently() {
+		Object ui = getUI();
+		if (!(ui instanceof BasicRangeSliderUI)
+				|| !((BasicRangeSliderUI) ui).paintsConcurrently())
+			return false;
+		return !getPaintLabels() || copyLabels();
+	}
+
+	/**
+	 * Brings the copies of the labels up to date and has
+	 * {@link #getLabelTable()} return them until rendering ends. The labels
+	 * of the caller are only read: a label UI shared among all labels keeps
+	 * layout state while painting, so each copy gets a UI instance of its
+	 * own, and the copies belong to this slider alone.
+	 * 
+	 * @return whether every label could be copied
+	 */
+	private boolean copyLabels() {
+		Dictionary<?, ?> labels = super.getLabelTable();
+		if (labels == null)
+			return true;
+		Map<JLabel, JLabel> copies = new IdentityHashMap<>();
+		Hashtable<Object, Object> painted = new Hashtable<>();
+		for (Enumeration<?> keys = labels.keys(); keys.hasMoreElements();) {
+			Object key = keys.nextElement();
+			Object value = labels.get(key);
+			if (value instanceof JLabel) {
+				JLabel label = (JLabel) value;
+				JLabel copy = labelCopies == null ? null : labelCopies
+						.get(label);
+				if (copy == null || copy.getUI() == null
+						|| label.getUI() == null
+						|| copy.getUI().getClass() != label.getUI().getClass())
+					copy = createLabelCopy(label);
+				if (copy == null)
+					return false;
+				updateLabelCopy(label, copy);
+				copies.put(label, copy);
+				value = copy;
+			}
+			painted.put(key, value);
+		}
+		labelCopies = copies;
+		paintedLabels = painted;
+		return true;
+	}
+
+	/**
+	 * Creates a label to paint in place of {@code label}, with a UI of the
+	 * same class used by no other label.
+	 * 
+	 * @return the copy, or {@code null} if no such UI can be created
+	 */
+	private static JLabel createLabelCopy(JLabel label) {
+		LabelUI ui = label.getUI();
+		if (ui == null)
+			return null;
+		JLabel copy = new JLabel();
+		if (!(ui instanceof SynthUI)) {
+			try {
+				copy.setUI(ui.getClass().getConstructor().newInstance());
+			} catch (ReflectiveOperationException ex) {
+				return null;
+			}
+		} else if (copy.getUI().getClass() != ui.getClass()) {
+			return null;
+		}
+		return copy;
+	}
+
+	/**
+	 * Copies what the look of {@code label} depends on to {@code copy}.
+	 */
+	private static void updateLabelCopy(JLabel label, JLabel copy) {
+		copy.setText(label.getText());
+		copy.setIcon(label.getIcon());
+		copy.setDisabledIcon(label.getDisabledIcon());
+		copy.setFont(label.getFont());
+		copy.setForeground(label.getForeground());
+		copy.setBackground(label.getBackground());
+		copy.setOpaque(label.isOpaque());
+		copy.setEnabled(label.isEnabled());
+		copy.setBorder(label.getBorder());
+		copy.setHorizontalAlignment(label.getHorizontalAlignment());
+		copy.setVerticalAlignment(label.getVerticalAlignment());
+		copy.setHorizontalTextPosition(label.getHorizontalTextPosition());
+		copy.setVerticalTextPosition(label.getVerticalTextPosition());
+		copy.setIconTextGap(label.getIconTextGap());
+		copy.setBounds(label.getBounds());
+	}
+
+	/**
+	 * Returns the label table, or while rendering, the same table with the
+	 * labels replaced by the copies painted in their place.
+	 */
+	@Override
+	@SuppressWarnings("rawtypes")
+	public Dictionary getLabelTable() {
+		Dictionary<Object, Object> painted = paintedLabels;
+		return painted != null ? painted : super.getLabelTable();
+	}
+
+	@Override
+	@Deprecated
+	public void reshape(int x, int y, int w, int h) {
+		reshapeAndLayout(x, y, w, h);
+	}
+
+	/**
+	 * Does nothing: component events would be delivered on the event
+	 * dispatch thread. The slider lays itself out when resized instead.
+	 */
+	@Override
+	public synchronized void addComponentListener(ComponentListener l) {
+	}
+
+	/**
+	 * Returns {@code null}: an offscreen slider is never under the mouse.
+	 */
+	@Override
+	public Point getMousePosition() {
+		return null;
+	}
+
+	@Override
+	public void invalidate() {
+	}
+
+	@Override
+	public void validate() {
+	}
+
+	@Override
+	public void revalidate() {
+	}
+
+	@Override
+	public void repaint(long tm, int x, int y, int width, int height) {
+	}
+
+	@Override
+	public void repaint(Rectangle r) {
+	}
+
+	@Override
+	public void repaint() {
+	}
+}
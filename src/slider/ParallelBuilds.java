@@ -0,0 +1,43 @@
+package slider;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Runs the fork/join tasks that index or bin large columns of data. They all
+ * share one pool, created on first use. Its threads are daemons and exit
+ * once idle for a while, so the pool is never shut down.
+ *
+ * @author johnchen902
+ */
+final class ParallelBuilds {
+
+	private ParallelBuilds() {
+	}
+
+	private static class PoolHolder {
+		static final ForkJoinPool POOL = new ForkJoinPool();
+	}
+
+	/**
+	 * Returns the most elements of a column of {@code length} a task should
+	 * process without splitting: enough for about four tasks per processor,
+	 * but never fewer than {@code minimum}.
+	 */
+	static int threshold(int length, int minimum) {
+		int parallelism = Runtime.getRuntime().availableProcessors();
+		return Math.max(minimum, length / (4 * parallelism));
+	}
+
+	/**
+	 * Runs {@code task} in the pool the caller is running in, if any, or in
+	 * the shared pool otherwise.
+	 *
+	 * @return the result of {@code task}
+	 */
+	static <T> T invoke(ForkJoinTask<T> task) {
+		if (ForkJoinTask.inForkJoinPool())
+			return task.invoke();
+		return PoolHolder.POOL.invoke(task);
+	}
+}
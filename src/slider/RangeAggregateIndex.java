@@ -0,0 +1,243 @@
+package slider;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.EventListenerList;
+
+/**
+ * Counts the values of a column within the range of a range slider, and sums
+ * their weights, without looking at the column again once it is indexed.
+ * <p>
+ * The index keeps, for each value from the least to the greatest of the
+ * column, how many values and how much weight lie below it. The aggregate of
+ * any range is then the difference of two entries, so the aggregate of the
+ * range of the slider can be shown by a label or a tooltip on every change
+ * of a drag. Listeners are notified when it changes.
+ * <p>
+ * The index takes an {@code int}, and a {@code double} if there are weights,
+ * per value from the least to the greatest of the column, so it suits
+ * columns whose values are not spread too widely, such as days or
+ * percentages. Sums are exact to within the rounding of the total weight.
+ * This class must be used on the event dispatch thread, except for
+ * {@link #count} and {@link #sum}, which may be called from any thread.
+ *
+ * @author johnchen902
+ */
+public class RangeAggregateIndex {
+
+	private static final int MAX_SPAN = Integer.MAX_VALUE - 8;
+
+	private final RangeSlider slider;
+
+	/**
+	 * The least value, and the number of values and the total weight below
+	 * each value from it, {@code counts[i]} being those below
+	 * {@code start + i}; {@code sums} is {@code null} without weights.
+	 */
+	private final int start;
+	private final int[] counts;
+	private final double[] sums;
+
+	/**
+	 * The aggregate of the range of the slider.
+	 */
+	private int count;
+	private double sum;
+
+	private final EventListenerList listenerList = new EventListenerList();
+	private ChangeEvent changeEvent;
+
+	private final ChangeListener sliderListener = new ChangeListener() {
+		@Override
+		public void stateChanged(ChangeEvent e) {
+			update();
+		}
+	};
+
+	/**
+	 * Creates an index counting the values of {@code values} within the range
+	 * of {@code slider}.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the values are spread too widely to be indexed
+	 */
+	public RangeAggregateIndex(RangeSlider slider, int[] values) {
+		this(slider, values, null);
+	}
+
+	/**
+	 * Creates an index counting the values of {@code values} within the range
+	 * of {@code slider} and summing their weights.
+	 *
+	 * @param weights
+	 *            the weight of each value, or {@code null} to only count them
+	 * @throws IllegalArgumentException
+	 *             if there is not one weight per value, or the values are
+	 *             spread too widely to be indexed
+	 */
+	public RangeAggregateIndex(RangeSlider slider, int[] values,
+			double[] weights) {
+		if (weights != null && weights.length != values.length)
+			throw new IllegalArgumentException(
+					"weights.length != values.length");
+		int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+		for (int value : values) {
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+		}
+		if (values.length == 0)
+			min = max = 0;
+		if ((long) max - min + 1 > MAX_SPAN)
+			throw new IllegalArgumentException("values from " + min + " to "
+					+ max);
+		int span = max - min + 1;
+
+		// Count each value at the entry after it, then accumulate.
+		start = min;
+		counts = new int[span + 1];
+		sums = weights == null ? null : new double[span + 1];
+		for (int i = 0; i < values.length; i++) {
+			int index = values[i] - min + 1;
+			counts[index]++;
+			if (sums != null)
+				sums[index] += weights[i];
+		}
+		for (int i = 1; i <= span; i++) {
+			counts[i] += counts[i - 1];
+			if (sums != null)
+				sums[i] += sums[i - 1];
+		}
+
+		this.slider = slider;
+		slider.addChangeListener(sliderListener);
+		count = count(slider.getLowerValue(), slider.getUpperValue());
+		sum = sums == null ? 0 : sum(slider.getLowerValue(),
+				slider.getUpperValue());
+	}
+
+	public RangeSlider getSlider() {
+		return slider;
+	}
+
+	/**
+	 * Returns whether the index sums weights.
+	 */
+	public boolean hasWeights() {
+		return sums != null;
+	}
+
+	/**
+	 * Returns the number of values within the range of the slider, bounds
+	 * included.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the total weight of the values within the range of the slider,
+	 * bounds included.
+	 *
+	 * @throws IllegalStateException
+	 *             if the index has no weights
+	 */
+	public double getSum() {
+		if (sums == null)
+			throw new IllegalStateException("no weights");
+		return sum;
+	}
+
+	/**
+	 * Returns the number of values from {@code from} to {@code to}, both
+	 * included.
+	 */
+	public int count(int from, int to) {
+		int first = first(from);
+		int last = last(to);
+		return first < last ? counts[last] - counts[first] : 0;
+	}
+
+	/**
+	 * Returns the total weight of the values from {@code from} to {@code to},
+	 * both included.
+	 *
+	 * @throws IllegalStateException
+	 *             if the index has no weights
+	 */
+	public double sum(int from, int to) {
+		if (sums == null)
+			throw new IllegalStateException("no weights");
+		int first = first(from);
+		int last = last(to);
+		return first < last ? sums[last] - sums[first] : 0;
+	}
+
+	/**
+	 * Returns the entry of the values below {@code from}, clamped to the
+	 * entries.
+	 */
+	private int first(int from) {
+		return (int) Math.max(0, Math.min((long) from - start,
+				counts.length - 1));
+	}
+
+	/**
+	 * Returns the entry of the values up to {@code to}, clamped to the
+	 * entries.
+	 */
+	private int last(int to) {
+		return (int) Math.max(0, Math.min((long) to - start + 1,
+				counts.length - 1));
+	}
+
+	/**
+	 * Looks up the aggregate of the new range of the slider, and notifies
+	 * the listeners if it changed.
+	 */
+	private void update() {
+		int lower = slider.getLowerValue();
+		int upper = slider.getUpperValue();
+		int newCount = count(lower, upper);
+		double newSum = sums == null ? 0 : sum(lower, upper);
+		if (newCount != count
+				|| Double.doubleToLongBits(newSum) != Double
+						.doubleToLongBits(sum)) {
+			count = newCount;
+			sum = newSum;
+			fireStateChanged();
+		}
+	}
+
+	/**
+	 * Stops following the slider.
+	 */
+	public void dispose() {
+		slider.removeChangeListener(sliderListener);
+	}
+
+	/**
+	 * Adds a listener notified when the aggregate of the range of the slider
+	 * changes.
+	 */
+	public void addChangeListener(ChangeListener l) {
+		listenerList.add(ChangeListener.class, l);
+	}
+
+	/**
+	 * Removes a listener added by {@link #addChangeListener}.
+	 */
+	public void removeChangeListener(ChangeListener l) {
+		listenerList.remove(ChangeListener.class, l);
+	}
+
+	private void fireStateChanged() {
+		Object[] listeners = listenerList.getListenerList();
+		for (int i = listeners.length - 2; i >= 0; i -= 2) {
+			if (listeners[i] == ChangeListener.class) {
+				if (changeEvent == null)
+					changeEvent = new ChangeEvent(this);
+				((ChangeListener) listeners[i + 1]).stateChanged(changeEvent);
+			}
+		}
+	}
+}
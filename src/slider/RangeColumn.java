@@ -0,0 +1,162 @@
+package slider;
+
+import java.util.Arrays;
+
+/**
+ * A column of ranges kept in a primitive array, one {@code long} per row. The
+ * lower value is stored in the high 32 bits and the upper value in the low 32
+ * bits; {@link #pack}, {@link #lower} and {@link #upper} convert between the
+ * two forms.
+ * <p>
+ * A RangeColumn is meant to back a table column rendered by
+ * {@link RangeSliderTableCellRenderer}, so that rendering a cell reads two
+ * ints instead of unboxing a value from the {@code TableModel}. Row indices
+ * are model indices. This class is not thread-safe.
+ *
+ * @author johnchen902
+ */
+public class RangeColumn {
+
+	private long[] ranges;
+	private int size;
+
+	/**
+	 * Creates an empty column.
+	 */
+	public RangeColumn() {
+		this(16);
+	}
+
+	/**
+	 * Creates an empty column with the specified initial capacity.
+	 *
+	 * @param initialCapacity
+	 *            the number of rows that can be added without growing
+	 * @throws IllegalArgumentException
+	 *             if {@code initialCapacity} is negative
+	 */
+	public RangeColumn(int initialCapacity) {
+		if (initialCapacity < 0)
+			throw new IllegalArgumentException("initialCapacity < 0");
+		ranges = new long[initialCapacity];
+	}
+
+	/**
+	 * Creates a column from parallel arrays of lower and upper values.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the arrays have different lengths
+	 */
+	public RangeColumn(int[] lowerValues, int[] upperValues) {
+		if (lowerValues.length != upperValues.length)
+			throw new IllegalArgumentException("length mismatch");
+		size = lowerValues.length;
+		ranges = new long[size];
+		for (int i = 0; i < size; i++)
+			ranges[i] = pack(lowerValues[i], upperValues[i]);
+	}
+
+	/**
+	 * Packs a range into a {@code long}.
+	 */
+	public static long pack(int lowerValue, int upperValue) {
+		return ((long) lowerValue << 32) | (upperValue & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Returns the lower value of a packed range.
+	 */
+	public static int lower(long range) {
+		return (int) (range >> 32);
+	}
+
+	/**
+	 * Returns the upper value of a packed range.
+	 */
+	public static int upper(long range) {
+		return (int) range;
+	}
+
+	/**
+	 * Returns the packed range represented by a table cell value, which may be
+	 * a {@code Number} holding a packed range or an {@code int[]} holding the
+	 * lower and upper value. {@code null} is an empty range at
+	 * {@code defaultValue}.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if {@code value} is of neither form
+	 */
+	static long rangeOf(Object value, int defaultValue) {
+		if (value == null)
+			return pack(defaultValue, defaultValue);
+		if (value instanceof Number)
+			return ((Number) value).longValue();
+		if (value instanceof int[] && ((int[]) value).length == 2)
+			return pack(((int[]) value)[0], ((int[]) value)[1]);
+		throw new IllegalArgumentException("not a range: " + value);
+	}
+
+	/**
+	 * Returns the number of rows.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the packed range of a row.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if {@code row} is out of range
+	 */
+	public long get(int row) {
+		checkIndex(row);
+		return ranges[row];
+	}
+
+	/**
+	 * Returns the lower value of a row.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if {@code row} is out of range
+	 */
+	public int getLower(int row) {
+		return lower(get(row));
+	}
+
+	/**
+	 * Returns the upper value of a row.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if {@code row} is out of range
+	 */
+	public int getUpper(int row) {
+		return upper(get(row));
+	}
+
+	/**
+	 * Sets the range of a row.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if {@code row} is out of range
+	 */
+	public void set(int row, int lowerValue, int upperValue) {
+		checkIndex(row);
+		ranges[row] = pack(lowerValue, upperValue);
+	}
+
+	/**
+	 * Appends a row.
+	 */
+	public void add(int lowerValue, int upperValue) {
+		if (size == ranges.length)
+			ranges = Arrays.copyOf(ranges, Math.max(16, size * 2));
+		ranges[size++] = pack(lowerValue, upperValue);
+	}
+
+	private void checkIndex(int row) {
+		if (row < 0 || row >= size)
+			throw new IndexOutOfBoundsException("row: " + row + ", size: "
+					+ size);
+	}
+}
@@ -0,0 +1,328 @@
+package slider;
+
+import java.util.Arrays;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.EventListenerList;
+
+/**
+ * Counts the rows whose value lies within the range of a range slider while
+ * rows keep being inserted, deleted and updated, without counting them
+ * again for every change.
+ * <p>
+ * The values rows may take are given up front, sorted into coordinates, and
+ * the index keeps a Fenwick tree of the number of rows at each coordinate.
+ * Changes, from any thread, go through a {@link Batch}, which finds the
+ * coordinates of its values before the tree is locked and applies all its
+ * changes at once under the lock, so that no count sees part of a batch.
+ * Each change, and the count of any range, then takes logarithmic time in
+ * the number of coordinates.
+ * <p>
+ * The count of the range of the slider is looked up again whenever the
+ * slider changes, and at most once per frame after batches are applied;
+ * listeners are notified when it changes. This class must be used on the
+ * event dispatch thread, except for batches, {@link #count} and
+ * {@link #getSize}, which may be used from any thread.
+ *
+ * @author johnchen902
+ */
+public class RangeCountIndex {
+
+	private final RangeSlider slider;
+
+	/**
+	 * The values rows may take, in ascending order.
+	 */
+	private final int[] coordinates;
+
+	/**
+	 * The number of rows at each coordinate, and the Fenwick tree of them,
+	 * {@code tree[i]} holding the rows at the {@code i & -i} coordinates up
+	 * to coordinate {@code i - 1}; both guarded by {@code lock}.
+	 */
+	private final Object lock = new Object();
+	private final long[] counts;
+	private final long[] tree;
+	private long size;
+
+	/**
+	 * The count of the range of the slider.
+	 */
+	private long count;
+
+	private final EventListenerList listenerList = new EventListenerList();
+	private ChangeEvent changeEvent;
+
+	private final ChangeListener sliderListener = new ChangeListener() {
+		@Override
+		public void stateChanged(ChangeEvent e) {
+			update();
+		}
+	};
+
+	private final FrameCoalescer publisher = new FrameCoalescer(
+			new Runnable() {
+				@Override
+				public void run() {
+					update();
+				}
+			});
+
+	/**
+	 * Creates an empty index counting rows within the range of
+	 * {@code slider}.
+	 *
+	 * @param coordinates
+	 *            the values rows may take, in any order, duplicates allowed;
+	 *            copied
+	 */
+	public RangeCountIndex(RangeSlider slider, int[] coordinates) {
+		int[] sorted = coordinates.clone();
+		Arrays.sort(sorted);
+		int n = 0;
+		for (int i = 0; i < sorted.length; i++)
+			if (n == 0 || sorted[i] != sorted[n - 1])
+				sorted[n++] = sorted[i];
+		this.coordinates = Arrays.copyOf(sorted, n);
+		counts = new long[n];
+		tree = new long[n + 1];
+		this.slider = slider;
+		slider.addChangeListener(sliderListener);
+	}
+
+	public RangeSlider getSlider() {
+		return slider;
+	}
+
+	/**
+	 * Returns a new, empty batch of changes to this index.
+	 */
+	public Batch newBatch() {
+		return new Batch();
+	}
+
+	/**
+	 * Returns the number of rows within the range of the slider, bounds
+	 * included, as of the last batch applied before the slider last changed
+	 * or the frame after.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the number of rows.
+	 */
+	public long getSize() {
+		synchronized (lock) {
+			return size;
+		}
+	}
+
+	/**
+	 * Returns the number of rows from {@code from} to {@code to}, both
+	 * included.
+	 */
+	public long count(int from, int to) {
+		int first = search(from);
+		int end = to == Integer.MAX_VALUE ? coordinates.length
+				: search(to + 1);
+		if (first >= end)
+			return 0;
+		synchronized (lock) {
+			return prefix(end) - prefix(first);
+		}
+	}
+
+	/**
+	 * Returns the index of the first coordinate not less than {@code value}.
+	 */
+	private int search(int value) {
+		int i = Arrays.binarySearch(coordinates, value);
+		return i >= 0 ? i : -i - 1;
+	}
+
+	/**
+	 * Returns the number of rows at the first {@code end} coordinates.
+	 * Called holding the lock.
+	 */
+	private long prefix(int end) {
+		long sum = 0;
+		for (int i = end; i > 0; i -= i & -i)
+			sum += tree[i];
+		return sum;
+	}
+
+	/**
+	 * Adds {@code delta} rows at coordinate {@code index}. Called holding the
+	 * lock.
+	 */
+	private void add(int index, long delta) {
+		for (int i = index + 1; i < tree.length; i += i & -i)
+			tree[i] += delta;
+	}
+
+	/**
+	 * Looks up the count of the range of the slider, and notifies the
+	 * listeners if it changed.
+	 */
+	private void update() {
+		long newCount = count(slider.getLowerValue(), slider.getUpperValue());
+		if (newCount != count) {
+			count = newCount;
+			fireStateChanged();
+		}
+	}
+
+	/**
+	 * Stops following the slider.
+	 */
+	public void dispose() {
+		slider.removeChangeListener(sliderListener);
+	}
+
+	/**
+	 * Adds a listener notified when the count of the range of the slider
+	 * changes.
+	 */
+	public void addChangeListener(ChangeListener l) {
+		listenerList.add(ChangeListener.class, l);
+	}
+
+	/**
+	 * Removes a listener added by {@link #addChangeListener}.
+	 */
+	public void removeChangeListener(ChangeListener l) {
+		listenerList.remove(ChangeListener.class, l);
+	}
+
+	private void fireStateChanged() {
+		Object[] listeners = listenerList.getListenerList();
+		for (int i = listeners.length - 2; i >= 0; i -= 2) {
+			if (listeners[i] == ChangeListener.class) {
+				if (changeEvent == null)
+					changeEvent = new ChangeEvent(this);
+				((ChangeListener) listeners[i + 1]).stateChanged(changeEvent);
+			}
+		}
+	}
+
+	/**
+	 * Changes to an index, applied together. A batch is cleared when it is
+	 * applied, so that it can be filled again. A batch must not be used by
+	 * several threads at once, but batches of one index may be filled and
+	 * applied by different threads at the same time.
+	 */
+	public final class Batch {
+		private int[] indices = new int[16];
+		private int[] deltas = new int[16];
+		private int size;
+
+		private Batch() {
+		}
+
+		/**
+		 * Adds the insertion of a row with {@code value}.
+		 *
+		 * @throws IllegalArgumentException
+		 *             if {@code value} is not a coordinate of the index
+		 */
+		public Batch insert(int value) {
+			put(indexOf(value), 1);
+			return this;
+		}
+
+		/**
+		 * Adds the deletion of a row with {@code value}.
+		 *
+		 * @throws IllegalArgumentException
+		 *             if {@code value} is not a coordinate of the index
+		 */
+		public Batch delete(int value) {
+			put(indexOf(value), -1);
+			return this;
+		}
+
+		/**
+		 * Adds the update of a row from {@code oldValue} to
+		 * {@code newValue}.
+		 *
+		 * @throws IllegalArgumentException
+		 *             if either value is not a coordinate of the index
+		 */
+		public Batch update(int oldValue, int newValue) {
+			int oldIndex = indexOf(oldValue);
+			int newIndex = indexOf(newValue);
+			if (oldIndex != newIndex) {
+				put(oldIndex, -1);
+				put(newIndex, 1);
+			}
+			return this;
+		}
+
+		/**
+		 * Returns the number of changes added since the batch was last
+		 * applied or cleared.
+		 */
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * Drops the changes added.
+		 */
+		public void clear() {
+			size = 0;
+		}
+
+		/**
+		 * Applies the changes added to the index, at once, and clears the
+		 * batch. Applies none of them if one would delete a row that is not
+		 * there.
+		 *
+		 * @throws IllegalStateException
+		 *             if a change deletes a row that is not there
+		 */
+		public void apply() {
+			if (size == 0)
+				return;
+			synchronized (lock) {
+				for (int i = 0; i < size; i++) {
+					int index = indices[i];
+					counts[index] += deltas[i];
+					if (counts[index] < 0) {
+						for (int j = i; j >= 0; j--)
+							counts[indices[j]] -= deltas[j];
+						throw new IllegalStateException("no row with value "
+								+ coordinates[index] + " to delete");
+					}
+				}
+				for (int i = 0; i < size; i++) {
+					add(indices[i], deltas[i]);
+					RangeCountIndex.this.size += deltas[i];
+				}
+			}
+			size = 0;
+			publisher.request();
+		}
+
+		private int indexOf(int value) {
+			int index = Arrays.binarySearch(coordinates, value);
+			if (index < 0)
+				throw new IllegalArgumentException("value " + value
+						+ " is not a coordinate");
+			return index;
+		}
+
+		private void put(int index, int delta) {
+			if (size == indices.length) {
+				indices = Arrays.copyOf(indices, size * 2);
+				deltas = Arrays.copyOf(deltas, size * 2);
+			}
+			indices[size] = index;
+			deltas[size] = delta;
+			size++;
+		}
+	}
+}
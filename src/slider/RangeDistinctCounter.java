@@ -0,0 +1,421 @@
+package slider;
+
+import java.util.Arrays;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.EventListenerList;
+
+/**
+ * Estimates how many distinct ids, such as users or instruments, the rows
+ * whose value lies within the range of a range slider have, without looking
+ * at the rows again once they are indexed.
+ * <p>
+ * The values are divided into bins, one per value if there are few enough
+ * values, and each bin has a HyperLogLog sketch of the ids of its rows: for
+ * each of {@code 2^precision} registers, the most leading zeros seen in the
+ * hashes of the ids that fall on it. Sketches merge by taking the greatest
+ * of each register, so the sketches are kept in a segment tree, and the
+ * sketch of a range is merged from a logarithmic number of them whenever
+ * the slider changes. The estimate is off by about
+ * {@link #getRelativeError} of the count, and the index takes
+ * {@code 2 * bins * 2^precision} bytes however many rows there are. When
+ * there are more values than bins, the range is rounded out to whole bins.
+ * <p>
+ * The exact count can also be computed in the background when a drag ends,
+ * by a {@link RangeSliderWorker}; it is dropped as soon as the range changes
+ * again. Listeners are notified when the estimate or the exact count changes.
+ * This class must be used on the event dispatch thread.
+ *
+ * @author johnchen902
+ */
+public class RangeDistinctCounter {
+
+	private static final int DEFAULT_BINS = 1024;
+	private static final int DEFAULT_PRECISION = 10;
+	private static final int MIN_PRECISION = 4, MAX_PRECISION = 16;
+	private static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+
+	/**
+	 * {@code 2^-k} for each register value {@code k}.
+	 */
+	private static final double[] POWERS = new double[Long.SIZE + 2];
+	static {
+		for (int k = 0; k < POWERS.length; k++)
+			POWERS[k] = Math.scalb(1.0, -k);
+	}
+
+	private final RangeSlider slider;
+	private final int[] values;
+	private final long[] ids;
+
+	/**
+	 * The least value, the number of values each bin holds but the last, and
+	 * the bins.
+	 */
+	private final int start, max;
+	private final long valuesPerBin;
+	private final int bins;
+
+	private final int precision;
+	private final int registers;
+
+	/**
+	 * The segment tree of sketches, the sketch of node {@code i} being the
+	 * registers from {@code i * registers}: node {@code bins + b} is that of
+	 * bin {@code b}, and node {@code i < bins} merges nodes {@code 2 * i}
+	 * and {@code 2 * i + 1}.
+	 */
+	private final byte[] tree;
+
+	/**
+	 * The registers merged for the range of the slider.
+	 */
+	private final byte[] merged;
+
+	private long estimate;
+
+	/**
+	 * The exact count, or -1 if unknown, and the range it is for.
+	 */
+	private long exactCount = -1;
+	private int exactLower, exactUpper;
+	private RangeSliderWorker<Long> exactWorker;
+
+	private final EventListenerList listenerList = new EventListenerList();
+	private ChangeEvent changeEvent;
+
+	private final ChangeListener sliderListener = new ChangeListener() {
+		@Override
+		public void stateChanged(ChangeEvent e) {
+			update();
+		}
+	};
+
+	/**
+	 * Creates an index of the distinct {@code ids} of the rows whose value
+	 * in {@code values} is within the range of {@code slider}, with 1024 bins
+	 * and sketches of 1024 registers, within about 3% of the count.
+	 *
+	 * @param values
+	 *            the value of each row, not copied; it must not change
+	 * @param ids
+	 *            the id of each row, not copied; it must not change
+	 * @throws IllegalArgumentException
+	 *             if there is not one id per value
+	 */
+	public RangeDistinctCounter(RangeSlider slider, int[] values, long[] ids) {
+		this(slider, values, ids, DEFAULT_BINS, DEFAULT_PRECISION);
+	}
+
+	/**
+	 * Creates an index of the distinct {@code ids} of the rows whose value
+	 * in {@code values} is within the range of {@code slider}.
+	 *
+	 * @param values
+	 *            the value of each row, not copied; it must not change
+	 * @param ids
+	 *            the id of each row, not copied; it must not change
+	 * @param bins
+	 *            the most bins to divide the values into
+	 * @param precision
+	 *            the base 2 logarithm of the number of registers of each
+	 *            sketch, from 4 to 16
+	 * @throws IllegalArgumentException
+	 *             if there is not one id per value, {@code bins} is not
+	 *             positive, {@code precision} is out of bounds, or the
+	 *             sketches would not fit in an array
+	 */
+	public RangeDistinctCounter(RangeSlider slider, int[] values, long[] ids,
+			int bins, int precision) {
+		if (ids.length != values.length)
+			throw new IllegalArgumentException("ids.length != values.length");
+		if (bins <= 0)
+			throw new IllegalArgumentException("bins " + bins);
+		if (precision < MIN_PRECISION || precision > MAX_PRECISION)
+			throw new IllegalArgumentException("precision " + precision);
+		int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+		for (int value : values) {
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+		}
+		if (values.length == 0)
+			min = max = 0;
+		long span = (long) max - min + 1;
+		this.bins = (int) Math.min(bins, span);
+		registers = 1 << precision;
+		if (2L * this.bins * registers > MAX_SIZE)
+			throw new IllegalArgumentException("bins " + bins
+					+ ", precision " + precision);
+		this.slider = slider;
+		this.values = values;
+		this.ids = ids;
+		this.precision = precision;
+		start = min;
+		this.max = max;
+		valuesPerBin = (span + this.bins - 1) / this.bins;
+
+		tree = new byte[2 * this.bins * registers];
+		for (int i = 0; i < values.length; i++) {
+			long hash = hash(ids[i]);
+			int offset = (this.bins + bin(values[i])) * registers
+					+ (int) (hash >>> (Long.SIZE - precision));
+			byte rank = rank(hash);
+			if (tree[offset] < rank)
+				tree[offset] = rank;
+		}
+		for (int node = this.bins - 1; node > 0; node--)
+			mergeInto(tree, node * registers, 2 * node, 2 * node + 1);
+		merged = new byte[registers];
+
+		slider.addChangeListener(sliderListener);
+		estimate = estimate(slider.getLowerValue(), slider.getUpperValue());
+	}
+
+	/**
+	 * Mixes the bits of {@code id}, so that close ids are far apart.
+	 */
+	private static long hash(long id) {
+		id ^= id >>> 33;
+		id *= 0xff51afd7ed558ccdL;
+		id ^= id >>> 33;
+		id *= 0xc4ceb9fe1a85ec53L;
+		id ^= id >>> 33;
+		return id;
+	}
+
+	/**
+	 * Returns one more than the leading zeros of the bits of {@code hash}
+	 * after those picking the register.
+	 */
+	private byte rank(long hash) {
+		long rest = hash << precision | 1L << (precision - 1);
+		return (byte) (Long.numberOfLeadingZeros(rest) + 1);
+	}
+
+	private int bin(int value) {
+		return (int) (((long) value - start) / valuesPerBin);
+	}
+
+	private void mergeInto(byte[] target, int offset, int left, int right) {
+		int l = left * registers, r = right * registers;
+		for (int j = 0; j < registers; j++)
+			target[offset + j] = (byte) Math.max(tree[l + j], tree[r + j]);
+	}
+
+	private void merge(int node) {
+		int offset = node * registers;
+		for (int j = 0; j < registers; j++)
+			if (merged[j] < tree[offset + j])
+				merged[j] = tree[offset + j];
+	}
+
+	public RangeSlider getSlider() {
+		return slider;
+	}
+
+	/**
+	 * Returns the relative standard error of the estimates, which depends
+	 * on the precision only.
+	 */
+	public double getRelativeError() {
+		return 1.04 / Math.sqrt(registers);
+	}
+
+	/**
+	 * Returns the estimated number of distinct ids within the range of the
+	 * slider, bounds included.
+	 */
+	public long getEstimate() {
+		return estimate;
+	}
+
+	/**
+	 * Returns the exact number of distinct ids within the range of the
+	 * slider, bounds included, or -1 if it is not known, as it is while the
+	 * range is being dragged and until the count finishes.
+	 *
+	 * @see #setExactOnRelease
+	 */
+	public long getExactCount() {
+		return exactCount;
+	}
+
+	/**
+	 * Returns whether the exact count is computed when a drag ends.
+	 */
+	public boolean isExactOnRelease() {
+		return exactWorker != null;
+	}
+
+	/**
+	 * Sets whether the exact count is computed, in the background, whenever
+	 * the range is committed, such as when a drag ends. Counting takes time
+	 * in proportion to the number of rows.
+	 */
+	public void setExactOnRelease(boolean exactOnRelease) {
+		if (exactOnRelease == isExactOnRelease())
+			return;
+		if (exactOnRelease) {
+			exactWorker = new RangeSliderWorker<Long>(slider,
+					ChangeDeliveryPolicy.ON_RELEASE) {
+				@Override
+				protected Long compute(int lowerValue, int upperValue)
+						throws InterruptedException {
+					return countExactly(lowerValue, upperValue);
+				}
+
+				@Override
+				protected void done(int lowerValue, int upperValue,
+						Long result) {
+					if (slider.getLowerValue() == lowerValue
+							&& slider.getUpperValue() == upperValue) {
+						exactCount = result;
+						exactLower = lowerValue;
+						exactUpper = upperValue;
+						fireStateChanged();
+					}
+				}
+			};
+			exactWorker.submit();
+		} else {
+			exactWorker.dispose();
+			exactWorker = null;
+			if (exactCount >= 0) {
+				exactCount = -1;
+				fireStateChanged();
+			}
+		}
+	}
+
+	/**
+	 * Returns the estimated number of distinct ids from {@code from} to
+	 * {@code to}, both included.
+	 */
+	public long estimate(int from, int to) {
+		long first = Math.max(from, start);
+		long last = Math.min(to, max);
+		if (first > last)
+			return 0;
+		Arrays.fill(merged, (byte) 0);
+		// Merge the nodes covering the bins, bottom up.
+		int l = bins + bin((int) first);
+		int r = bins + bin((int) last) + 1;
+		for (; l < r; l >>= 1, r >>= 1) {
+			if ((l & 1) != 0)
+				merge(l++);
+			if ((r & 1) != 0)
+				merge(--r);
+		}
+
+		double sum = 0;
+		int zeros = 0;
+		for (int j = 0; j < registers; j++) {
+			sum += POWERS[merged[j]];
+			if (merged[j] == 0)
+				zeros++;
+		}
+		double m = registers;
+		double estimate = alpha() * m * m / sum;
+		// Linear counting is more accurate for small counts.
+		if (estimate <= 2.5 * m && zeros > 0)
+			estimate = m * Math.log(m / zeros);
+		return Math.round(estimate);
+	}
+
+	private double alpha() {
+		switch (registers) {
+		case 16:
+			return 0.673;
+		case 32:
+			return 0.697;
+		case 64:
+			return 0.709;
+		default:
+			return 0.7213 / (1 + 1.079 / registers);
+		}
+	}
+
+	/**
+	 * Counts the distinct ids from {@code from} to {@code to}, both
+	 * included, by sorting the ids of the rows within. Called off the event
+	 * dispatch thread.
+	 *
+	 * @throws InterruptedException
+	 *             if the thread is interrupted while scanning the rows
+	 */
+	private long countExactly(int from, int to) throws InterruptedException {
+		long[] within = new long[64];
+		int size = 0;
+		for (int i = 0; i < values.length; i++) {
+			if ((i & 0xffff) == 0 && Thread.interrupted())
+				throw new InterruptedException();
+			int value = values[i];
+			if (value >= from && value <= to) {
+				if (size == within.length)
+					within = Arrays.copyOf(within, size * 2);
+				within[size++] = ids[i];
+			}
+		}
+		Arrays.sort(within, 0, size);
+		long count = 0;
+		for (int i = 0; i < size; i++)
+			if (i == 0 || within[i] != within[i - 1])
+				count++;
+		return count;
+	}
+
+	/**
+	 * Estimates the count of the new range of the slider, drops the exact
+	 * count if the range changed, and notifies the listeners if either
+	 * changed.
+	 */
+	private void update() {
+		int lower = slider.getLowerValue();
+		int upper = slider.getUpperValue();
+		long newEstimate = estimate(lower, upper);
+		boolean changed = newEstimate != estimate;
+		estimate = newEstimate;
+		if (exactCount >= 0 && (lower != exactLower || upper != exactUpper)) {
+			exactCount = -1;
+			changed = true;
+		}
+		if (changed)
+			fireStateChanged();
+	}
+
+	/**
+	 * Stops following the slider, and cancels the exact count if it is
+	 * running.
+	 */
+	public void dispose() {
+		slider.removeChangeListener(sliderListener);
+		setExactOnRelease(false);
+	}
+
+	/**
+	 * Adds a listener notified when the estimate or the exact count of the
+	 * range of the slider changes.
+	 */
+	public void addChangeListener(ChangeListener l) {
+		listenerList.add(ChangeListener.class, l);
+	}
+
+	/**
+	 * Removes a listener added by {@link #addChangeListener}.
+	 */
+	public void removeChangeListener(ChangeListener l) {
+		listenerList.remove(ChangeListener.class, l);
+	}
+
+	private void fireStateChanged() {
+		Object[] listeners = listenerList.getListenerList();
+		for (int i = listeners.length - 2; i >= 0; i -= 2) {
+			if (listeners[i] == ChangeListener.class) {
+				if (changeEvent == null)
+					changeEvent = new ChangeEvent(this);
+				((ChangeListener) listeners[i + 1]).stateChanged(changeEvent);
+			}
+		}
+	}
+}
@@ -0,0 +1,328 @@
+package slider;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.EventListenerList;
+
+/**
+ * Finds the least and the greatest of a measure, such as a price or a
+ * latency, over the rows whose key lies within the range of a range slider,
+ * such as the rows of a time window, without looking at the rows again once
+ * they are indexed.
+ * <p>
+ * The index keeps the extrema of the measure for each key from the least to
+ * the greatest, and for each block of 16 keys a sparse table: the extrema of
+ * every run of a power of two blocks. The extrema of any range are then
+ * those of two overlapping runs covering its whole blocks and of the few
+ * keys left at either end, found in constant time, so that they can follow
+ * the slider on every change of a drag. Large tables are built in
+ * parallel.
+ * <p>
+ * The index follows the slider as one of its change listeners, and listeners
+ * of the slider are called in no particular order, so one may run before the
+ * index has looked up the extrema of the new range. To show the extrema,
+ * listen to the index instead: its listeners are notified once the extrema
+ * of the range of the slider have been looked up, when they change.
+ * <p>
+ * Measures that are {@code NaN} or infinite are ignored; the extrema of a
+ * range without any other measure are {@code NaN}. The index takes two
+ * {@code double}s per key from the least to the greatest, and somewhat less
+ * again for the sparse table. This class must be used on the event dispatch
+ * thread, except for {@link #lowest} and {@link #highest}, which may be
+ * called from any thread.
+ *
+ * @author johnchen902
+ */
+public class RangeExtremaIndex {
+
+	private static final int BLOCK = 16;
+	private static final int MAX_SPAN = Integer.MAX_VALUE - 8;
+
+	/**
+	 * The fewest entries per fork/join task. Smaller tables are built on the
+	 * calling thread.
+	 */
+	private static final int SEQUENTIAL_THRESHOLD = 1 << 16;
+
+	private final RangeSlider slider;
+
+	/**
+	 * The least key, and the extrema for each key from it, infinite for keys
+	 * without measures.
+	 */
+	private final int start;
+	private final double[] keyLows, keyHighs;
+
+	/**
+	 * The sparse tables, {@code lows[k][b]} being the least measure of the
+	 * {@code 2^k} blocks from block {@code b}.
+	 */
+	private final double[][] lows, highs;
+
+	/**
+	 * The extrema of the range of the slider.
+	 */
+	private double lowest, highest;
+
+	private final EventListenerList listenerList = new EventListenerList();
+	private ChangeEvent changeEvent;
+
+	private final ChangeListener sliderListener = new ChangeListener() {
+		@Override
+		public void stateChanged(ChangeEvent e) {
+			update();
+		}
+	};
+
+	/**
+	 * Creates an index of the extrema of {@code measures} over the rows whose
+	 * key in {@code keys} is within the range of {@code slider}.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if there is not one measure per key, or the keys are spread
+	 *             too widely to be indexed
+	 */
+	public RangeExtremaIndex(RangeSlider slider, int[] keys,
+			double[] measures) {
+		if (measures.length != keys.length)
+			throw new IllegalArgumentException(
+					"measures.length != keys.length");
+		int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+		for (int key : keys) {
+			min = Math.min(min, key);
+			max = Math.max(max, key);
+		}
+		if (keys.length == 0)
+			min = max = 0;
+		if ((long) max - min + 1 > MAX_SPAN)
+			throw new IllegalArgumentException("keys from " + min + " to "
+					+ max);
+		int span = max - min + 1;
+
+		start = min;
+		keyLows = new double[span];
+		keyHighs = new double[span];
+		Arrays.fill(keyLows, Double.POSITIVE_INFINITY);
+		Arrays.fill(keyHighs, Double.NEGATIVE_INFINITY);
+		for (int i = 0; i < keys.length; i++) {
+			double measure = measures[i];
+			if (Double.isNaN(measure) || Double.isInfinite(measure))
+				continue;
+			int index = keys[i] - min;
+			keyLows[index] = Math.min(keyLows[index], measure);
+			keyHighs[index] = Math.max(keyHighs[index], measure);
+		}
+
+		int blocks = (span + BLOCK - 1) / BLOCK;
+		int levels = 32 - Integer.numberOfLeadingZeros(blocks);
+		lows = new double[levels][];
+		highs = new double[levels][];
+		for (int k = 0; k < levels; k++) {
+			int length = blocks - (1 << k) + 1;
+			lows[k] = new double[length];
+			highs[k] = new double[length];
+			build(new LevelTask(k, 0, length, threshold(length)));
+		}
+
+		this.slider = slider;
+		slider.addChangeListener(sliderListener);
+		lowest = lowest(slider.getLowerValue(), slider.getUpperValue());
+		highest = highest(slider.getLowerValue(), slider.getUpperValue());
+	}
+
+	private static int threshold(int length) {
+		return ParallelBuilds.threshold(length, SEQUENTIAL_THRESHOLD);
+	}
+
+	private static void build(LevelTask task) {
+		if (task.to - task.from <= task.threshold)
+			task.compute();
+		else
+			ParallelBuilds.invoke(task);
+	}
+
+	public RangeSlider getSlider() {
+		return slider;
+	}
+
+	/**
+	 * Returns the least measure within the range of the slider, bounds
+	 * included, or {@code NaN} if there is none.
+	 */
+	public double getLowest() {
+		return lowest;
+	}
+
+	/**
+	 * Returns the greatest measure within the range of the slider, bounds
+	 * included, or {@code NaN} if there is none.
+	 */
+	public double getHighest() {
+		return highest;
+	}
+
+	/**
+	 * Returns the least measure of the keys from {@code from} to {@code to},
+	 * both included, or {@code NaN} if there is none.
+	 */
+	public double lowest(int from, int to) {
+		long first = Math.max(0, (long) from - start);
+		long last = Math.min(keyLows.length - 1, (long) to - start);
+		if (first > last)
+			return Double.NaN;
+		double low = extremum(keyLows, lows, (int) first, (int) last, true);
+		return low == Double.POSITIVE_INFINITY ? Double.NaN : low;
+	}
+
+	/**
+	 * Returns the greatest measure of the keys from {@code from} to
+	 * {@code to}, both included, or {@code NaN} if there is none.
+	 */
+	public double highest(int from, int to) {
+		long first = Math.max(0, (long) from - start);
+		long last = Math.min(keyHighs.length - 1, (long) to - start);
+		if (first > last)
+			return Double.NaN;
+		double high = extremum(keyHighs, highs, (int) first, (int) last,
+				false);
+		return high == Double.NEGATIVE_INFINITY ? Double.NaN : high;
+	}
+
+	/**
+	 * Returns the extremum of the keys from index {@code first} to
+	 * {@code last}, both included: the keys of the blocks at either end one
+	 * by one, and the blocks between from the sparse table.
+	 */
+	private static double extremum(double[] keyExtrema, double[][] table,
+			int first, int last, boolean least) {
+		int firstBlock = first / BLOCK;
+		int lastBlock = last / BLOCK;
+		if (firstBlock == lastBlock)
+			return scan(keyExtrema, first, last + 1, least);
+		double result = scan(keyExtrema, first, (firstBlock + 1) * BLOCK,
+				least);
+		result = pick(result, scan(keyExtrema, lastBlock * BLOCK, last + 1,
+				least), least);
+		int blocks = lastBlock - firstBlock - 1;
+		if (blocks > 0) {
+			int k = 31 - Integer.numberOfLeadingZeros(blocks);
+			double[] level = table[k];
+			result = pick(result, level[firstBlock + 1], least);
+			result = pick(result, level[lastBlock - (1 << k)], least);
+		}
+		return result;
+	}
+
+	private static double scan(double[] keyExtrema, int from, int to,
+			boolean least) {
+		double result = keyExtrema[from];
+		for (int i = from + 1; i < to; i++)
+			result = pick(result, keyExtrema[i], least);
+		return result;
+	}
+
+	private static double pick(double a, double b, boolean least) {
+		return least ? Math.min(a, b) : Math.max(a, b);
+	}
+
+	/**
+	 * Looks up the extrema of the new range of the slider, and notifies the
+	 * listeners if they changed.
+	 */
+	private void update() {
+		int lower = slider.getLowerValue();
+		int upper = slider.getUpperValue();
+		double newLowest = lowest(lower, upper);
+		double newHighest = highest(lower, upper);
+		if (Double.doubleToLongBits(newLowest) != Double
+				.doubleToLongBits(lowest)
+				|| Double.doubleToLongBits(newHighest) != Double
+						.doubleToLongBits(highest)) {
+			lowest = newLowest;
+			highest = newHighest;
+			fireStateChanged();
+		}
+	}
+
+	/**
+	 * Stops following the slider.
+	 */
+	public void dispose() {
+		slider.removeChangeListener(sliderListener);
+	}
+
+	/**
+	 * Adds a listener notified when the extrema of the range of the slider
+	 * change.
+	 */
+	public void addChangeListener(ChangeListener l) {
+		listenerList.add(ChangeListener.class, l);
+	}
+
+	/**
+	 * Removes a listener added by {@link #addChangeListener}.
+	 */
+	public void removeChangeListener(ChangeListener l) {
+		listenerList.remove(ChangeListener.class, l);
+	}
+
+	private void fireStateChanged() {
+		Object[] listeners = listenerList.getListenerList();
+		for (int i = listeners.length - 2; i >= 0; i -= 2) {
+			if (listeners[i] == ChangeListener.class) {
+				if (changeEvent == null)
+					changeEvent = new ChangeEvent(this);
+				((ChangeListener) listeners[i + 1]).stateChanged(changeEvent);
+			}
+		}
+	}
+
+	/**
+	 * Fills the entries from {@code from} to {@code to} of a level of the
+	 * sparse tables, from the keys for the first level and from the level
+	 * below for the others, splitting into subtasks above {@code threshold}
+	 * entries.
+	 */
+	private final class LevelTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int level, from, to, threshold;
+
+		LevelTask(int level, int from, int to, int threshold) {
+			this.level = level;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > threshold) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new LevelTask(level, from, mid, threshold),
+						new LevelTask(level, mid, to, threshold));
+				return;
+			}
+			double[] low = lows[level], high = highs[level];
+			if (level == 0) {
+				for (int b = from; b < to; b++) {
+					int first = b * BLOCK;
+					int end = Math.min(keyLows.length, first + BLOCK);
+					low[b] = scan(keyLows, first, end, true);
+					high[b] = scan(keyHighs, first, end, false);
+				}
+			} else {
+				double[] lowBelow = lows[level - 1];
+				double[] highBelow = highs[level - 1];
+				int half = 1 << (level - 1);
+				for (int b = from; b < to; b++) {
+					low[b] = Math.min(lowBelow[b], lowBelow[b + half]);
+					high[b] = Math.max(highBelow[b], highBelow[b + half]);
+				}
+			}
+		}
+	}
+}
@@ -1,13 +1,20 @@
 package slider;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
+import java.awt.Component;
+import java.util.Collections;
+import java.util.Dictionary;
+import java.util.Enumeration;
+import java.util.IdentityHashMap;
+import java.util.Set;
 
 import javax.swing.BoundedRangeModel;
 import javax.swing.JComponent;
 import javax.swing.JSlider;
+import javax.swing.SwingUtilities;
 import javax.swing.UIDefaults;
 import javax.swing.UIManager;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 import javax.swing.plaf.SliderUI;
 import javax.swing.plaf.nimbus.NimbusLookAndFeel;
 
@@ -31,47 +38,114 @@ public class RangeSlider extends JSlider {
 	 */
 	private static final String uiClassID = "RangeSliderUI";
 
-	static {
-		UIManager.addPropertyChangeListener(new PropertyChangeListener() {
-			@Override
-			public void propertyChange(PropertyChangeEvent e) {
-				if (e.getPropertyName().equals("lookAndFeel"))
-					guessAndSetDefaultUI();
-			}
-		});
-		if (UIManager.get(uiClassID) == null)
-			guessAndSetDefaultUI();
-	}
-
 	/**
 	 * Guess and set the default UI delegation of this RangeSlider from the
 	 * current L&F.
+	 * <p>
+	 * The delegate is set in the L&F defaults, so it goes away with them when
+	 * the L&F changes; RangeSlider calls this method again when it finds no
+	 * delegate set for the current L&F. A delegate set with
+	 * {@code UIManager.put} takes precedence.
 	 */
 	public static void guessAndSetDefaultUI() {
+		UIDefaults defaults = UIManager.getLookAndFeelDefaults();
 		String lafName = UIManager.getLookAndFeel().getID();
 		if (lafName.equals("Metal"))
-			UIManager.put(uiClassID, "slider.MetalRangeSliderUI");
+			defaults.put(uiClassID, "slider.MetalRangeSliderUI");
 		else if (lafName.equals("Windows"))
-			UIManager.put(uiClassID, "slider.WindowsRangeSliderUI");
+			defaults.put(uiClassID, "slider.WindowsRangeSliderUI");
 		else if (lafName.equals("Nimbus")) {
 			((NimbusLookAndFeel) UIManager.getLookAndFeel()).register(
 					SliderRangeTrackRegion.INSTANCE, "Slider:SliderRangeTrack");
-			UIManager.put("Slider:SliderRangeTrack.States",
+			// Nimbus reads the styles of registered regions from the merged
+			// defaults, where these keys survive L&F switches, so they are
+			// only put once.
+			putIfAbsent("Slider:SliderRangeTrack.States",
 					"Enabled,MouseOver,Pressed,Disabled,Focused,Selected");
-			UIManager.put(
-					"Slider:SliderRangeTrack[Disabled].backgroundPainter",
-					new SliderRangeTrackPainter(false));
-			UIManager.put("Slider:SliderRangeTrack[Enabled].backgroundPainter",
-					new SliderRangeTrackPainter(true));
-			UIManager.put(uiClassID, "slider.SynthRangeSliderUI");
+			putIfAbsent("Slider:SliderRangeTrack[Disabled].backgroundPainter",
+					new PainterValue(false));
+			putIfAbsent("Slider:SliderRangeTrack[Enabled].backgroundPainter",
+					new PainterValue(true));
+			defaults.put(uiClassID, "slider.SynthRangeSliderUI");
 		} else if (lafName.equals("Motif")) {
-			UIManager.put(uiClassID, "slider.MotifRangeSliderUI");
+			defaults.put(uiClassID, "slider.MotifRangeSliderUI");
 		} else
-			UIManager.put(uiClassID, "slider.BasicRangeSliderUI");
+			defaults.put(uiClassID, "slider.BasicRangeSliderUI");
+	}
+
+	private static void putIfAbsent(String key, Object value) {
+		if (UIManager.get(key) == null)
+			UIManager.put(key, value);
+	}
+
+	/**
+	 * Sets the default delegate if the current L&F has none.
+	 */
+	private static void ensureDefaultUI() {
+		if (UIManager.getLookAndFeelDefaults().get(uiClassID) == null)
+			guessAndSetDefaultUI();
+	}
+
+	/**
+	 * Creates the Nimbus range track painter when Nimbus first styles a range
+	 * slider, rather than when the L&F is installed.
+	 */
+	private static class PainterValue implements UIDefaults.LazyValue {
+		private final boolean enabled;
+
+		PainterValue(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		@Override
+		public Object createValue(UIDefaults table) {
+			return new SliderRangeTrackPainter(enabled);
+		}
+	}
+
+	/**
+	 * Creates the delegate named in the defaults through its
+	 * {@code createUI}, without reflection, if it is one of the delegates of
+	 * this package that every JDK can load. The Windows delegate, which
+	 * needs the Windows L&F classes, is left to {@code UIManager.getUI}, so
+	 * that this class does not refer to it.
+	 * 
+	 * @return the delegate, or {@code null} if the defaults name some other
+	 *         class
+	 */
+	private static RangeSliderUI createBuiltInUI(Object uiClassName,
+			RangeSlider slider) {
+		if ("slider.BasicRangeSliderUI".equals(uiClassName))
+			return (RangeSliderUI) BasicRangeSliderUI.createUI(slider);
+		if ("slider.MetalRangeSliderUI".equals(uiClassName))
+			return (RangeSliderUI) MetalRangeSliderUI.createUI(slider);
+		if ("slider.SynthRangeSliderUI".equals(uiClassName))
+			return (RangeSliderUI) SynthRangeSliderUI.createUI(slider);
+		if ("slider.MotifRangeSliderUI".equals(uiClassName))
+			return (RangeSliderUI) MotifRangeSliderUI.createUI(slider);
+		return null;
 	}
 
 	private boolean lowerThumbFocused = true;
 
+	private boolean zoomable;
+	private boolean zoomed;
+	private int visibleMinimum, visibleMaximum;
+
+	private transient TrackBackdrop trackBackdrop;
+	private transient ChangeListener trackBackdropListener;
+
+	/**
+	 * Set while {@link #updateUIs} updates this slider. Revalidation and
+	 * repaints are held back, and the delegate defers its geometry.
+	 */
+	transient boolean updatingUIs;
+
+	/**
+	 * The labels already updated by the running {@link #updateUIs}, if any.
+	 */
+	private static Set<JComponent> updatedLabels;
+
 	/**
 	 * Creates a range slider with the range 0 to 100 and an initial value of 33
 	 * and 66.
@@ -203,6 +277,139 @@ public class RangeSlider extends JSlider {
 		return uiClassID;
 	}
 
+	/**
+	 * Resets the UI property to a value from the current look and feel. The
+	 * delegates of this package are created directly; any other delegate is
+	 * looked up through {@code UIManager.getUI}.
+	 * 
+	 * @see JComponent#updateUI
+	 */
+	@Override
+	public void updateUI() {
+		ensureDefaultUI();
+		RangeSliderUI ui = createBuiltInUI(UIManager.get(getUIClassID()),
+				this);
+		if (ui != null)
+			setUI(ui);
+		else
+			setUI((SliderUI) UIManager.getUI(this));
+		updateLabelUIs();
+	}
+
+	/**
+	 * Updates the UI of many range sliders at once, typically after the look
+	 * and feel has changed. Compared with calling {@link #updateUI()} on each
+	 * slider:
+	 * <ul>
+	 * <li>a slider whose delegate class stays the same keeps its delegate and
+	 * listeners and only has the defaults and keyboard actions of the new
+	 * L&F reinstalled;</li>
+	 * <li>the geometry of each slider is calculated when it is next painted or
+	 * measured, so sliders that are not showing cost nothing until they
+	 * are;</li>
+	 * <li>layout and repaint happen once per root component rather than once
+	 * per slider;</li>
+	 * <li>a label shared by the label tables of several sliders is updated
+	 * once.</li>
+	 * </ul>
+	 * This method must be called on the event dispatch thread.
+	 * 
+	 * @param sliders
+	 *            the sliders to update
+	 */
+	public static void updateUIs(Iterable<? extends RangeSlider> sliders) {
+		Set<Component> roots = Collections
+				.newSetFromMap(new IdentityHashMap<Component, Boolean>());
+		ensureDefaultUI();
+		Set<JComponent> outerLabels = updatedLabels;
+		updatedLabels = Collections
+				.newSetFromMap(new IdentityHashMap<JComponent, Boolean>());
+		try {
+			updateUIs(sliders, roots);
+		} finally {
+			updatedLabels = outerLabels;
+		}
+		for (Component root : roots) {
+			root.validate();
+			root.repaint();
+		}
+	}
+
+	private static void updateUIs(Iterable<? extends RangeSlider> sliders,
+			Set<Component> roots) {
+		for (RangeSlider slider : sliders) {
+			slider.updatingUIs = true;
+			try {
+				Object uiClassName = UIManager.get(slider.getUIClassID());
+				RangeSliderUI ui = slider.getUI();
+				if (ui instanceof BasicRangeSliderUI
+						&& ui.getClass().getName().equals(uiClassName)) {
+					((BasicRangeSliderUI) ui).reinstallDefaults();
+					slider.updateLabelUIs();
+				} else {
+					slider.updateUI();
+				}
+			} finally {
+				slider.updatingUIs = false;
+			}
+			slider.invalidate();
+			Component root = SwingUtilities.getRoot(slider);
+			if (root != null)
+				roots.add(root);
+		}
+	}
+
+	/**
+	 * Updates the UI of the labels in the label table. Within
+	 * {@link #updateUIs}, a label already updated for another slider is
+	 * skipped.
+	 */
+	@Override
+	protected void updateLabelUIs() {
+		@SuppressWarnings("rawtypes")
+		Dictionary labelTable = getLabelTable();
+		if (updatedLabels == null || labelTable == null) {
+			super.updateLabelUIs();
+			return;
+		}
+		for (Enumeration<?> e = labelTable.elements(); e.hasMoreElements();) {
+			JComponent label = (JComponent) e.nextElement();
+			if (updatedLabels.add(label)) {
+				label.updateUI();
+				label.setSize(label.getPreferredSize());
+			}
+		}
+	}
+
+	/**
+	 * Sets the bounds, and if the size changed, has a basic delegate lay the
+	 * slider out at once rather than when the resize event arrives, reusing
+	 * the geometry of the last few sizes (see
+	 * {@link BasicRangeSliderUI#layoutForSize()}). Called by the
+	 * {@code reshape} of sliders that are painted without waiting for events
+	 * and moved between a few sizes, such as offscreen sliders and the
+	 * renderer and editor sliders of tables.
+	 */
+	@SuppressWarnings("deprecation")
+	final void reshapeAndLayout(int x, int y, int w, int h) {
+		boolean resized = w != getWidth() || h != getHeight();
+		super.reshape(x, y, w, h);
+		if (resized && getUI() instanceof BasicRangeSliderUI)
+			((BasicRangeSliderUI) getUI()).layoutForSize();
+	}
+
+	@Override
+	public void revalidate() {
+		if (!updatingUIs)
+			super.revalidate();
+	}
+
+	@Override
+	public void repaint(long tm, int x, int y, int width, int height) {
+		if (!updatingUIs)
+			super.repaint(tm, x, y, width, height);
+	}
+
 	/**
 	 * Sets the UI object which implements the L&F for this component.
 	 * 
@@ -356,6 +563,43 @@ public class RangeSlider extends JSlider {
 		setExtent(newExtent);
 	}
 
+	/**
+	 * Adds a listener notified of changes of the range as {@code policy}
+	 * says, for example at most some times a second during a drag. The
+	 * listener is told of the latest range only, and always of the range
+	 * committed at the end of a drag. It is removed with
+	 * {@link #removeChangeListener}, which also drops any delivery pending.
+	 *
+	 * @param l
+	 *            the listener to add
+	 * @param policy
+	 *            when to notify the listener
+	 * @see ChangeDeliveryPolicy
+	 */
+	public void addChangeListener(ChangeListener l, ChangeDeliveryPolicy policy) {
+		addChangeListener(policy.wrap(this, l));
+	}
+
+	/**
+	 * Removes a listener, including one added with a delivery policy.
+	 *
+	 * @param l
+	 *            the listener to remove
+	 * @see #addChangeListener(ChangeListener, ChangeDeliveryPolicy)
+	 */
+	@Override
+	public void removeChangeListener(ChangeListener l) {
+		for (ChangeListener listener : getChangeListeners()) {
+			if (listener instanceof ChangeDeliveryPolicy.Delivery
+					&& ((ChangeDeliveryPolicy.Delivery) listener).delegate == l) {
+				((ChangeDeliveryPolicy.Delivery) listener).dispose();
+				super.removeChangeListener(listener);
+				return;
+			}
+		}
+		super.removeChangeListener(l);
+	}
+
 	/**
 	 * Get whether the lower thumb is focused if the slider is focused, or
 	 * whether the lower thumb will be focused if the slider become focused.
@@ -382,4 +626,161 @@ public class RangeSlider extends JSlider {
 					lowerThumbFocused);
 		}
 	}
+
+	/**
+	 * Returns what is painted behind the track, or {@code null} if nothing
+	 * is.
+	 * 
+	 * @return the track backdrop
+	 * @see #setTrackBackdrop
+	 */
+	public TrackBackdrop getTrackBackdrop() {
+		return trackBackdrop;
+	}
+
+	/**
+	 * Sets what is painted behind the track, such as a
+	 * {@link HistogramBackdrop} of the data this slider filters. The slider
+	 * repaints the track whenever the backdrop notifies its change
+	 * listeners. The backdrop is not serialized with the slider.
+	 * 
+	 * @param trackBackdrop
+	 *            the track backdrop, or {@code null} for none
+	 */
+	public void setTrackBackdrop(TrackBackdrop trackBackdrop) {
+		TrackBackdrop oldValue = this.trackBackdrop;
+		if (oldValue == trackBackdrop)
+			return;
+		if (trackBackdropListener == null) {
+			trackBackdropListener = new ChangeListener() {
+				@Override
+				public void stateChanged(ChangeEvent e) {
+					repaintTrackBackdrop(e);
+				}
+			};
+		}
+		if (oldValue != null)
+			oldValue.removeChangeListener(trackBackdropListener);
+		this.trackBackdrop = trackBackdrop;
+		if (trackBackdrop != null)
+			trackBackdrop.addChangeListener(trackBackdropListener);
+		firePropertyChange("trackBackdrop", oldValue, trackBackdrop);
+		repaint();
+	}
+
+	/**
+	 * Repaints the track, or only the part of it named by a
+	 * {@link TrackBackdropEvent}. Off the event dispatch thread, where the
+	 * geometry of the delegate cannot be read, the whole slider is
+	 * repainted.
+	 */
+	private void repaintTrackBackdrop(ChangeEvent e) {
+		RangeSliderUI ui = getUI();
+		if (!(ui instanceof BasicRangeSliderUI)
+				|| !SwingUtilities.isEventDispatchThread()) {
+			repaint();
+		} else if (e instanceof TrackBackdropEvent) {
+			TrackBackdropEvent be = (TrackBackdropEvent) e;
+			((BasicRangeSliderUI) ui).repaintTrackBackdrop(be.getFromValue(),
+					be.getToValue());
+		} else {
+			((BasicRangeSliderUI) ui).repaintTrackBackdrop(
+					Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+		}
+	}
+
+	/**
+	 * Returns whether the mouse wheel zooms the slider.
+	 * 
+	 * @see #setZoomable
+	 */
+	public boolean isZoomable() {
+		return zoomable;
+	}
+
+	/**
+	 * Sets whether the mouse wheel zooms the slider in and out around the
+	 * pointer. While zoomed in, the track shows only the visible range,
+	 * which gives each value more pixels. A slider that is not zoomable
+	 * leaves the wheel to its parent, such as a scroll pane. Making the
+	 * slider not zoomable also zooms it out.
+	 * 
+	 * @see #setVisibleRange
+	 */
+	public void setZoomable(boolean zoomable) {
+		boolean oldValue = this.zoomable;
+		if (oldValue != zoomable) {
+			this.zoomable = zoomable;
+			firePropertyChange("zoomable", oldValue, zoomable);
+			if (!zoomable)
+				setVisibleRange(getMinimum(), getMaximum());
+		}
+	}
+
+	/**
+	 * Returns the value at the start of the track, which is the minimum
+	 * unless the slider is zoomed in.
+	 */
+	public int getVisibleMinimum() {
+		if (!zoomed)
+			return getMinimum();
+		return Math.max(getMinimum(), Math.min(visibleMinimum, getMaximum()));
+	}
+
+	/**
+	 * Returns the value at the end of the track, which is the maximum unless
+	 * the slider is zoomed in.
+	 */
+	public int getVisibleMaximum() {
+		if (!zoomed)
+			return getMaximum();
+		return Math.min(getMaximum(), Math.max(visibleMaximum, getMinimum()));
+	}
+
+	/**
+	 * Shows only the values from {@code minimum} to {@code maximum} on the
+	 * track, clamped to the minimum and maximum of the slider. The range is
+	 * kept at least one value wide. Thumbs whose value is outside the
+	 * visible range are shown at the end of the track. Setting the visible
+	 * range to the whole range zooms the slider out, after which the visible
+	 * range follows the minimum and maximum.
+	 */
+	public void setVisibleRange(int minimum, int maximum) {
+		int min = getMinimum();
+		int max = getMaximum();
+		minimum = Math.max(min, Math.min(minimum, max));
+		maximum = Math.min(max, Math.max(maximum, min));
+		if ((long) maximum - minimum < 1) {
+			if (maximum < max)
+				maximum = minimum + 1;
+			else
+				minimum = Math.max(min, maximum - 1);
+		}
+		int oldMinimum = getVisibleMinimum();
+		int oldMaximum = getVisibleMaximum();
+		zoomed = minimum != min || maximum != max;
+		visibleMinimum = minimum;
+		visibleMaximum = maximum;
+		firePropertyChange("visibleMinimum", oldMinimum, minimum);
+		firePropertyChange("visibleMaximum", oldMaximum, maximum);
+	}
+
+	/**
+	 * Scales the visible range by {@code factor} around {@code anchor}, which
+	 * stays where it is on the track: a factor below 1 zooms in, above 1
+	 * zooms out. Zooming in always narrows the range by at least one value
+	 * until it is one value wide.
+	 */
+	public void zoom(double factor, int anchor) {
+		double min = getVisibleMinimum();
+		double max = getVisibleMaximum();
+		double newMin = anchor - (anchor - min) * factor;
+		double newMax = anchor + (max - anchor) * factor;
+		if (factor < 1)
+			setVisibleRange((int) Math.ceil(newMin), (int) Math.floor(newMax));
+		else
+			setVisibleRange((int) Math.max(Integer.MIN_VALUE,
+					Math.floor(newMin)), (int) Math.min(Integer.MAX_VALUE,
+					Math.ceil(newMax)));
+	}
 }
@@ -0,0 +1,157 @@
+package slider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.BoundedRangeModel;
+import javax.swing.DefaultBoundedRangeModel;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.EventListenerList;
+
+/**
+ * Keeps several range sliders in sync by attaching them all to one model,
+ * such as an overview and a detail slider, or the same filter on several
+ * tabs.
+ * <p>
+ * Since there is only one model, moving any slider changes the range once:
+ * nothing is copied between sliders and no change comes back to the slider
+ * it started from. Listeners added to the group are notified once per change
+ * of the model, however many sliders are in the group. Each slider that is
+ * showing repaints only the thumbs and range track; sliders that are not
+ * showing catch up when they are next painted.
+ * <p>
+ * This class must be used on the event dispatch thread.
+ *
+ * @author johnchen902
+ */
+public class RangeSliderGroup {
+
+	private final BoundedRangeModel model;
+	private final List<RangeSlider> sliders = new ArrayList<>();
+	private final EventListenerList listenerList = new EventListenerList();
+	private final ChangeListener modelListener = new ChangeListener() {
+		@Override
+		public void stateChanged(ChangeEvent e) {
+			fireStateChanged();
+		}
+	};
+	private ChangeEvent changeEvent;
+
+	/**
+	 * Creates a group with the range 0 to 100 and an initial lower and upper
+	 * value of 33 and 66, like {@link RangeSlider#RangeSlider()}.
+	 */
+	public RangeSliderGroup() {
+		this(new DefaultBoundedRangeModel(33, 33, 0, 100));
+	}
+
+	/**
+	 * Creates a group sharing {@code model}.
+	 */
+	public RangeSliderGroup(BoundedRangeModel model) {
+		if (model == null)
+			throw new NullPointerException("model");
+		this.model = model;
+		model.addChangeListener(modelListener);
+	}
+
+	/**
+	 * Returns the model shared by the sliders of this group.
+	 */
+	public BoundedRangeModel getModel() {
+		return model;
+	}
+
+	/**
+	 * Attaches {@code slider} to the shared model. Its previous model is left
+	 * as it was.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the slider is already in the group
+	 */
+	public void add(RangeSlider slider) {
+		if (sliders.contains(slider))
+			throw new IllegalArgumentException("slider already in group");
+		sliders.add(slider);
+		slider.setModel(model);
+	}
+
+	/**
+	 * Detaches {@code slider} from the shared model, giving it a model of its
+	 * own holding the current range. Does nothing if the slider is not in
+	 * the group.
+	 */
+	public void remove(RangeSlider slider) {
+		if (!sliders.remove(slider))
+			return;
+		slider.setModel(new DefaultBoundedRangeModel(model.getValue(),
+				model.getExtent(), model.getMinimum(), model.getMaximum()));
+	}
+
+	/**
+	 * Returns the sliders of this group, in the order they were added.
+	 */
+	public List<RangeSlider> getSliders() {
+		return Collections.unmodifiableList(sliders);
+	}
+
+	/**
+	 * Returns the lower value of the shared range.
+	 */
+	public int getLowerValue() {
+		return model.getValue();
+	}
+
+	/**
+	 * Returns the upper value of the shared range.
+	 */
+	public int getUpperValue() {
+		return model.getValue() + model.getExtent();
+	}
+
+	/**
+	 * Sets both values of the shared range, with a single notification. The
+	 * values are clamped to the minimum and maximum of the model, and swapped
+	 * if {@code lowerValue} is greater than {@code upperValue}.
+	 */
+	public void setRange(int lowerValue, int upperValue) {
+		int min = model.getMinimum();
+		int max = model.getMaximum();
+		int lower = Math.max(min, Math.min(lowerValue, upperValue));
+		int upper = Math.min(max, Math.max(lowerValue, upperValue));
+		lower = Math.min(lower, max);
+		upper = Math.max(upper, lower);
+		model.setRangeProperties(lower, upper - lower, min, max,
+				model.getValueIsAdjusting());
+	}
+
+	/**
+	 * Adds a listener notified once per change of the shared range.
+	 */
+	public void addChangeListener(ChangeListener l) {
+		listenerList.add(ChangeListener.class, l);
+	}
+
+	/**
+	 * Removes a listener added by {@link #addChangeListener}.
+	 */
+	public void removeChangeListener(ChangeListener l) {
+		listenerList.remove(ChangeListener.class, l);
+	}
+
+	/**
+	 * Notifies the listeners of this group, with this group as the source.
+	 */
+	protected void fireStateChanged() {
+		Object[] listeners = listenerList.getListenerList();
+		for (int i = listeners.length - 2; i >= 0; i -= 2) {
+			if (listeners[i] == ChangeListener.class) {
+				if (changeEvent == null)
+					changeEvent = new ChangeEvent(this);
+				((ChangeListener) listeners[i + 1]).stateChanged(changeEvent);
+			}
+		}
+	}
+}
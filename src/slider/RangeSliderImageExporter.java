@@ -0,0 +1,166 @@
+package slider;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import javax.swing.BoundedRangeModel;
+
+/**
+ * Writes PNG images of one configured slider showing many ranges, such as
+ * one image per row of a report. Works in a headless environment and on any
+ * thread; see {@link OffscreenRangeSlider} for the conditions.
+ * <p>
+ * The slider is laid out once. The first image is rendered in full and kept
+ * as a background. Each later image starts as a copy of it, and only the
+ * strip along the track that holds the thumbs is painted again, so the
+ * ticks, the labels and the border are drawn once per exporter. One PNG
+ * writer is reused for all images, and each image is written out before the
+ * next is rendered. Close the exporter to release the writer.
+ * <p>
+ * The exporter sets the values of its slider; do not change the
+ * configuration of the slider once the first image has been rendered. An
+ * exporter must be used by one thread at a time. Use an exporter with its
+ * own slider on each thread to export in parallel.
+ *
+ * @author johnchen902
+ */
+public class RangeSliderImageExporter implements Closeable {
+
+	/**
+	 * Where the images go.
+	 */
+	public interface Destination {
+		/**
+		 * Opens the stream to write the image of one range to. The exporter
+		 * closes it once the image is written.
+		 *
+		 * @param index
+		 *            the position of the range in the input, from 0
+		 */
+		OutputStream open(int index, int lowerValue, int upperValue)
+				throws IOException;
+	}
+
+	private final OffscreenRangeSlider slider;
+	private final BufferedImage image;
+	private BufferedImage background;
+	private Rectangle valueBounds;
+	private ImageWriter writer;
+
+	/**
+	 * Creates an exporter of images of {@code slider} at the given size.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if {@code width} or {@code height} is not positive
+	 */
+	public RangeSliderImageExporter(OffscreenRangeSlider slider, int width,
+			int height) {
+		this.slider = slider;
+		image = new BufferedImage(width, height,
+				slider.isOpaque() ? BufferedImage.TYPE_INT_RGB
+						: BufferedImage.TYPE_INT_ARGB);
+	}
+
+	/**
+	 * Returns the slider, for configuration before the first image.
+	 */
+	public OffscreenRangeSlider getSlider() {
+		return slider;
+	}
+
+	/**
+	 * Renders the slider showing a range. The returned image is reused by the
+	 * next call.
+	 */
+	public BufferedImage render(int lowerValue, int upperValue) {
+		BoundedRangeModel model = slider.getModel();
+		model.setRangeProperties(lowerValue, upperValue - lowerValue,
+				model.getMinimum(), model.getMaximum(), false);
+		if (background == null) {
+			slider.render(image);
+			background = new BufferedImage(image.getColorModel(),
+					image.copyData(null), image.isAlphaPremultiplied(), null);
+			Object ui = slider.getUI();
+			valueBounds = ui instanceof BasicRangeSliderUI
+					? ((BasicRangeSliderUI) ui).getValueDependentBounds()
+					: new Rectangle(image.getWidth(), image.getHeight());
+		} else {
+			background.copyData(image.getRaster());
+			slider.render(image, valueBounds);
+		}
+		return image;
+	}
+
+	/**
+	 * Writes a PNG image of the slider showing a range. {@code out} is
+	 * flushed but not closed.
+	 */
+	public void write(int lowerValue, int upperValue, OutputStream out)
+			throws IOException {
+		render(lowerValue, upperValue);
+		if (writer == null)
+			writer = ImageIO.getImageWritersByFormatName("png").next();
+		ImageOutputStream stream = new MemoryCacheImageOutputStream(out);
+		try {
+			writer.setOutput(stream);
+			writer.write(image);
+		} finally {
+			writer.setOutput(null);
+			stream.close();
+		}
+		out.flush();
+	}
+
+	/**
+	 * Writes an image for each range of {@code ranges}, in row order.
+	 */
+	public void export(RangeColumn ranges, Destination destination)
+			throws IOException {
+		for (int i = 0; i < ranges.size(); i++)
+			export(i, ranges.get(i), destination);
+	}
+
+	/**
+	 * Writes an image for each range from {@code ranges}, which yields ranges
+	 * packed by {@link RangeColumn#pack}. Ranges are taken one at a time, so
+	 * the input can be produced as it is consumed.
+	 */
+	public void export(Iterator<Long> ranges, Destination destination)
+			throws IOException {
+		for (int i = 0; ranges.hasNext(); i++)
+			export(i, ranges.next(), destination);
+	}
+
+	/**
+	 * Disposes of the PNG writer, if one was created. Calling it again has no
+	 * effect. An exporter written to after it is closed creates a new
+	 * writer, which has to be released by closing it again.
+	 */
+	@Override
+	public void close() {
+		if (writer != null) {
+			writer.dispose();
+			writer = null;
+		}
+	}
+
+	private void export(int index, long range, Destination destination)
+			throws IOException {
+		int lower = RangeColumn.lower(range);
+		int upper = RangeColumn.upper(range);
+		OutputStream out = destination.open(index, lower, upper);
+		try {
+			write(lower, upper, out);
+		} finally {
+			out.close();
+		}
+	}
+}
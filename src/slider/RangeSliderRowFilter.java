@@ -0,0 +1,583 @@
+package slider;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.RowFilter;
+import javax.swing.RowSorter;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.EventListenerList;
+import javax.swing.event.RowSorterEvent;
+import javax.swing.event.RowSorterListener;
+import javax.swing.table.TableModel;
+
+/**
+ * Filters the rows of a table to those whose value in one column lies in the
+ * range of a range slider, inclusive. Values are read as {@code Number}s;
+ * rows holding anything else, or {@code NaN}, are never included.
+ * <p>
+ * The filter can be set on a {@link javax.swing.table.TableRowSorter} like
+ * any other, which reads the value of each row as it filters, and has to be
+ * sorted again after each change of range, visiting every row.
+ * <p>
+ * For large tables, install the sorter returned by {@link #getRowSorter}
+ * instead. It reads the column once, and sorts the rows by their value into
+ * a permutation, so that the rows included always form one run of it. When
+ * the range changes, the runs entering and leaving the range are found by
+ * binary search, and only the rows in them are visited. The view keeps the
+ * included rows in model order, counted in a Fenwick tree, so that a change
+ * of range costs work in proportion to the rows entering or leaving the
+ * view, and converting a row index costs a logarithmic number of steps. That
+ * sorter does not sort by columns. Rows updated in the column are moved
+ * within the permutation, unless many are updated at once; other changes to
+ * the model make it read the column again. Updates to other columns are
+ * ignored.
+ * <p>
+ * This class must be used on the event dispatch thread.
+ *
+ * @author johnchen902
+ */
+public class RangeSliderRowFilter extends RowFilter<TableModel, Integer> {
+
+	private final RangeSlider slider;
+	private final TableModel model;
+	private final int column;
+
+	/**
+	 * The fraction of the rows above which an update reads the column again
+	 * rather than moving the rows updated one by one.
+	 */
+	private static final int REINDEX_FRACTION = 8;
+
+	/**
+	 * The value of each model row, and the model rows sorted by value, ties
+	 * in model order and {@code NaN} last; {@code null} until the sorter is
+	 * created.
+	 */
+	private double[] values;
+	private int[] order;
+
+	/**
+	 * The range last applied, and the part of {@code order} included.
+	 */
+	private int lowerValue, upperValue;
+	private int from, to;
+
+	private Sorter sorter;
+
+	private final ChangeListener sliderListener = new ChangeListener() {
+		@Override
+		public void stateChanged(ChangeEvent e) {
+			rangeChanged();
+		}
+	};
+
+	/**
+	 * Creates a filter on {@code column} of {@code model}, following the
+	 * range of {@code slider}.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if {@code column} is not a column of {@code model}
+	 */
+	public RangeSliderRowFilter(RangeSlider slider, TableModel model,
+			int column) {
+		if (column < 0 || column >= model.getColumnCount())
+			throw new IndexOutOfBoundsException("column " + column);
+		this.slider = slider;
+		this.model = model;
+		this.column = column;
+		lowerValue = slider.getLowerValue();
+		upperValue = slider.getUpperValue();
+		slider.addChangeListener(sliderListener);
+	}
+
+	public RangeSlider getSlider() {
+		return slider;
+	}
+
+	public TableModel getModel() {
+		return model;
+	}
+
+	public int getColumn() {
+		return column;
+	}
+
+	/**
+	 * Returns a sorter whose view is the rows of the model included by this
+	 * filter, in model order, updated in place as the range changes. There is
+	 * one such sorter per filter.
+	 */
+	public RowSorter<TableModel> getRowSorter() {
+		if (sorter == null)
+			sorter = new Sorter();
+		return sorter;
+	}
+
+	/**
+	 * Stops following the slider. The filter and its sorter keep the range
+	 * last applied.
+	 */
+	public void dispose() {
+		slider.removeChangeListener(sliderListener);
+	}
+
+	@Override
+	public boolean include(
+			Entry<? extends TableModel, ? extends Integer> entry) {
+		return isIncluded(toDouble(entry.getValue(column)));
+	}
+
+	/**
+	 * Returns whether the model row {@code row} is included, by its value in
+	 * the index.
+	 */
+	private boolean isIncluded(int row) {
+		return isIncluded(values[row]);
+	}
+
+	private boolean isIncluded(double value) {
+		return lowerValue <= value && value <= upperValue;
+	}
+
+	private static double toDouble(Object value) {
+		// Adding zero turns -0.0 into 0.0, which sorts like it compares.
+		return value instanceof Number ? ((Number) value).doubleValue() + 0.0
+				: Double.NaN;
+	}
+
+	/**
+	 * Reads the column and sorts the rows by value.
+	 */
+	private void buildIndex() {
+		int n = model.getRowCount();
+		values = new double[n];
+		for (int row = 0; row < n; row++)
+			values[row] = toDouble(model.getValueAt(row, column));
+		order = new int[n];
+		for (int row = 0; row < n; row++)
+			order[row] = row;
+		sort(values.clone(), order);
+		lowerValue = slider.getLowerValue();
+		upperValue = slider.getUpperValue();
+		from = search(lowerValue, false);
+		to = search(upperValue, true);
+	}
+
+	/**
+	 * Sorts {@code keys}, moving {@code rows} along. The sort is stable and
+	 * merges runs of the two arrays side by side, rather than comparing rows
+	 * through their keys, which would read the keys out of order.
+	 */
+	private static void sort(double[] keys, int[] rows) {
+		int n = keys.length;
+		final int run = 32;
+		for (int start = 0; start < n; start += run) {
+			int end = Math.min(n, start + run);
+			for (int i = start + 1; i < end; i++) {
+				double key = keys[i];
+				int row = rows[i];
+				int j = i;
+				for (; j > start && Double.compare(keys[j - 1], key) > 0; j--) {
+					keys[j] = keys[j - 1];
+					rows[j] = rows[j - 1];
+				}
+				keys[j] = key;
+				rows[j] = row;
+			}
+		}
+		double[] keyBuffer = new double[n];
+		int[] rowBuffer = new int[n];
+		double[] sourceKeys = keys, targetKeys = keyBuffer;
+		int[] sourceRows = rows, targetRows = rowBuffer;
+		for (long width = run; width < n; width *= 2) {
+			for (long start = 0; start < n; start += 2 * width) {
+				int mid = (int) Math.min(n, start + width);
+				int end = (int) Math.min(n, start + 2 * width);
+				int i = (int) start, j = mid;
+				for (int k = (int) start; k < end; k++) {
+					if (j >= end || i < mid
+							&& Double.compare(sourceKeys[i], sourceKeys[j]) <= 0) {
+						targetKeys[k] = sourceKeys[i];
+						targetRows[k] = sourceRows[i++];
+					} else {
+						targetKeys[k] = sourceKeys[j];
+						targetRows[k] = sourceRows[j++];
+					}
+				}
+			}
+			double[] keySwap = sourceKeys;
+			sourceKeys = targetKeys;
+			targetKeys = keySwap;
+			int[] rowSwap = sourceRows;
+			sourceRows = targetRows;
+			targetRows = rowSwap;
+		}
+		if (sourceRows != rows)
+			System.arraycopy(sourceRows, 0, rows, 0, n);
+	}
+
+	/**
+	 * Returns the number of rows whose value is less than {@code bound}, or
+	 * not greater than it if {@code inclusive}.
+	 */
+	private int search(int bound, boolean inclusive) {
+		int low = 0, high = order.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			double value = values[order[mid]];
+			if (inclusive ? value <= bound : value < bound)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	/**
+	 * Applies the range of the slider.
+	 */
+	private void rangeChanged() {
+		int lower = slider.getLowerValue();
+		int upper = slider.getUpperValue();
+		if (lower == lowerValue && upper == upperValue)
+			return;
+		lowerValue = lower;
+		upperValue = upper;
+		if (sorter != null) {
+			int oldFrom = from, oldTo = to;
+			from = search(lower, false);
+			to = search(upper, true);
+			sorter.rangeChanged(oldFrom, oldTo);
+		}
+	}
+
+	/**
+	 * Reads the value of {@code row} again, and moves the row to its place
+	 * in the order if it changed.
+	 *
+	 * @return whether the value changed
+	 */
+	private boolean updateIndex(int row) {
+		double value = toDouble(model.getValueAt(row, column));
+		if (Double.compare(value, values[row]) == 0)
+			return false;
+		int n = order.length;
+		int oldIndex = position(values[row], row, n);
+		System.arraycopy(order, oldIndex + 1, order, oldIndex, n - 1
+				- oldIndex);
+		values[row] = value;
+		int newIndex = position(value, row, n - 1);
+		System.arraycopy(order, newIndex, order, newIndex + 1, n - 1
+				- newIndex);
+		order[newIndex] = row;
+		from = search(lowerValue, false);
+		to = search(upperValue, true);
+		return true;
+	}
+
+	/**
+	 * Returns the number of the first {@code length} rows of the order that
+	 * come before a row {@code row} with {@code value}.
+	 */
+	private int position(double value, int row, int length) {
+		int low = 0, high = length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			int other = order[mid];
+			int c = Double.compare(values[other], value);
+			if (c < 0 || c == 0 && other < row)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	/**
+	 * A view of the rows included, in model order. The rows included are
+	 * counted in a Fenwick tree over the model rows, which gives the view
+	 * index of a model row and the model row at a view index in a
+	 * logarithmic number of steps, and takes as many to include or exclude a
+	 * row.
+	 * <p>
+	 * A table converts the selection through the previous view of each
+	 * {@code SORTED} event. This sorter does not keep the previous view as an
+	 * array, which would cost as much as the whole view; its events instead
+	 * work the previous view out from the rows that changed. That takes
+	 * firing its own events, so it keeps its own listeners.
+	 */
+	private final class Sorter extends RowSorter<TableModel> {
+
+		private final EventListenerList listenerList = new EventListenerList();
+
+		/**
+		 * The Fenwick tree, indexed from 1: {@code tree[i]} counts the rows
+		 * included from {@code i - (i & -i)} to {@code i}, exclusive of the
+		 * first.
+		 */
+		private int[] tree;
+		private int count;
+
+		Sorter() {
+			buildIndex();
+			buildTree();
+		}
+
+		private void buildTree() {
+			int n = order.length;
+			tree = new int[n + 1];
+			for (int p = from; p < to; p++)
+				tree[order[p] + 1] = 1;
+			for (int i = 1; i <= n; i++) {
+				int parent = i + (i & -i);
+				if (parent <= n)
+					tree[parent] += tree[i];
+			}
+			count = to - from;
+		}
+
+		/**
+		 * Returns the number of rows included before {@code row}.
+		 */
+		int rank(int row) {
+			int rank = 0;
+			for (int i = row; i > 0; i -= i & -i)
+				rank += tree[i];
+			return rank;
+		}
+
+		private void add(int row, int delta) {
+			for (int i = row + 1; i < tree.length; i += i & -i)
+				tree[i] += delta;
+			count += delta;
+		}
+
+		/**
+		 * Includes and excludes the rows that entered or left the part of the
+		 * order from {@code from} to {@code to}, which was from
+		 * {@code oldFrom} to {@code oldTo}, and notifies the listeners.
+		 */
+		void rangeChanged(int oldFrom, int oldTo) {
+			int[] runs;
+			if (oldTo <= from || to <= oldFrom)
+				runs = new int[] { oldFrom, oldTo, from, to };
+			else
+				runs = new int[] { Math.min(oldFrom, from),
+						Math.max(oldFrom, from), Math.min(oldTo, to),
+						Math.max(oldTo, to) };
+			int changes = runs[1] - runs[0] + runs[3] - runs[2];
+			if (changes == 0)
+				return;
+			int previousCount = count;
+			int[] changed = new int[changes];
+			int k = 0;
+			for (int r = 0; r < runs.length; r += 2) {
+				for (int p = runs[r]; p < runs[r + 1]; p++) {
+					int row = order[p];
+					changed[k++] = row;
+					add(row, p >= from && p < to ? 1 : -1);
+				}
+			}
+			fireRowSorterChanged(new RangeEvent(changed, previousCount));
+		}
+
+		/**
+		 * Reads the model again and notifies the listeners that the view
+		 * has changed as a whole.
+		 */
+		private void rebuild() {
+			buildIndex();
+			buildTree();
+			fireRowSorterChanged(new RowSorterEvent(this,
+					RowSorterEvent.Type.SORTED, null));
+		}
+
+		@Override
+		public void addRowSorterListener(RowSorterListener l) {
+			listenerList.add(RowSorterListener.class, l);
+		}
+
+		@Override
+		public void removeRowSorterListener(RowSorterListener l) {
+			listenerList.remove(RowSorterListener.class, l);
+		}
+
+		private void fireRowSorterChanged(RowSorterEvent e) {
+			Object[] listeners = listenerList.getListenerList();
+			for (int i = listeners.length - 2; i >= 0; i -= 2) {
+				if (listeners[i] == RowSorterListener.class)
+					((RowSorterListener) listeners[i + 1]).sorterChanged(e);
+			}
+		}
+
+		@Override
+		public TableModel getModel() {
+			return model;
+		}
+
+		/**
+		 * Does nothing; this sorter keeps model order.
+		 */
+		@Override
+		public void toggleSortOrder(int column) {
+		}
+
+		@Override
+		public int convertRowIndexToModel(int index) {
+			if (index < 0 || index >= count)
+				throw new IndexOutOfBoundsException("index " + index);
+			// Descend the tree for the row with index rows included before.
+			int row = 0;
+			int remaining = index;
+			int step = Integer.highestOneBit(order.length);
+			for (; step > 0; step >>= 1) {
+				int next = row + step;
+				if (next < tree.length && tree[next] <= remaining) {
+					row = next;
+					remaining -= tree[next];
+				}
+			}
+			return row;
+		}
+
+		@Override
+		public int convertRowIndexToView(int index) {
+			if (index < 0 || index >= order.length)
+				throw new IndexOutOfBoundsException("index " + index);
+			return isIncluded(index) ? rank(index) : -1;
+		}
+
+		/**
+		 * Ignores {@code keys}; this sorter keeps model order.
+		 */
+		@Override
+		public void setSortKeys(List<? extends SortKey> keys) {
+		}
+
+		@Override
+		public List<? extends SortKey> getSortKeys() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public int getViewRowCount() {
+			return count;
+		}
+
+		@Override
+		public int getModelRowCount() {
+			return order.length;
+		}
+
+		@Override
+		public void modelStructureChanged() {
+			rebuild();
+		}
+
+		@Override
+		public void allRowsChanged() {
+			rebuild();
+		}
+
+		@Override
+		public void rowsInserted(int firstRow, int endRow) {
+			rebuild();
+		}
+
+		@Override
+		public void rowsDeleted(int firstRow, int endRow) {
+			rebuild();
+		}
+
+		@Override
+		public void rowsUpdated(int firstRow, int endRow) {
+			if (firstRow < 0 || endRow >= order.length || firstRow > endRow
+					|| endRow - firstRow >= order.length / REINDEX_FRACTION) {
+				rebuild();
+				return;
+			}
+			int previousCount = count;
+			int[] changed = new int[endRow - firstRow + 1];
+			int k = 0;
+			for (int row = firstRow; row <= endRow; row++) {
+				boolean wasIncluded = isIncluded(row);
+				if (updateIndex(row) && isIncluded(row) != wasIncluded) {
+					add(row, wasIncluded ? -1 : 1);
+					changed[k++] = row;
+				}
+			}
+			if (k > 0)
+				fireRowSorterChanged(new RangeEvent(Arrays.copyOf(changed, k),
+						previousCount));
+		}
+
+		@Override
+		public void rowsUpdated(int firstRow, int endRow, int column) {
+			if (column == RangeSliderRowFilter.this.column)
+				rowsUpdated(firstRow, endRow);
+		}
+
+		/**
+		 * A change of range, converting view indices of the previous view
+		 * from the current one and the rows that changed.
+		 */
+		@SuppressWarnings("serial")
+		private final class RangeEvent extends RowSorterEvent {
+
+			/**
+			 * The rows that entered or left the view, in model order, and
+			 * the number of them before each that were in the previous view
+			 * less the number that were not.
+			 */
+			private final int[] changed;
+			private final int[] excess;
+			private final int previousCount;
+
+			RangeEvent(int[] changed, int previousCount) {
+				super(Sorter.this, Type.SORTED, null);
+				Arrays.sort(changed);
+				this.changed = changed;
+				this.previousCount = previousCount;
+				excess = new int[changed.length + 1];
+				for (int i = 0; i < changed.length; i++)
+					excess[i + 1] = excess[i]
+							+ (isIncluded(changed[i]) ? -1 : 1);
+			}
+
+			/**
+			 * Returns the number of rows in the previous view before
+			 * {@code row}.
+			 */
+			private int previousRank(int row) {
+				int changedBefore = Arrays.binarySearch(changed, row);
+				if (changedBefore < 0)
+					changedBefore = -1 - changedBefore;
+				return rank(row) + excess[changedBefore];
+			}
+
+			@Override
+			public int getPreviousRowCount() {
+				return previousCount;
+			}
+
+			@Override
+			public int convertPreviousRowIndexToModel(int index) {
+				if (index < 0 || index >= previousCount)
+					return -1;
+				// The last row with at most index rows before it.
+				int low = 0, high = order.length - 1;
+				while (low < high) {
+					int mid = (low + high + 1) >>> 1;
+					if (previousRank(mid) <= index)
+						low = mid;
+					else
+						high = mid - 1;
+				}
+				return low;
+			}
+		}
+	}
+}
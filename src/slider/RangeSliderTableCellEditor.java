@@ -0,0 +1,115 @@
+package slider;
+
+import java.awt.Component;
+
+import javax.swing.AbstractCellEditor;
+import javax.swing.BoundedRangeModel;
+import javax.swing.JTable;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.table.TableCellEditor;
+
+/**
+ * Edits a range in a table cell with a RangeSlider. Editing stops when the
+ * user releases a thumb. Like the renderer, the slider keeps the geometry of
+ * the last few cell sizes, so moving the editor between columns of different
+ * widths does not lay it out from scratch each time.
+ * <p>
+ * If a {@link RangeColumn} is given, the edited range is written back to it
+ * when editing stops. The cell editor value is the range packed by
+ * {@link RangeColumn#pack} as a {@code Long}, which the table passes to
+ * {@code TableModel.setValueAt}.
+ *
+ * @see RangeSliderTableCellRenderer
+ * @author johnchen902
+ */
+@SuppressWarnings("serial")
+public class RangeSliderTableCellEditor extends AbstractCellEditor implements
+		TableCellEditor {
+
+	private final RangeColumn column;
+	private final RangeSlider slider = new CellSlider();
+	private int modelRow = -1;
+	private boolean adjusting;
+
+	/**
+	 * Creates an editor reading the ranges from the cell values.
+	 */
+	public RangeSliderTableCellEditor() {
+		this(null);
+	}
+
+	/**
+	 * Creates an editor reading and writing the ranges of {@code column},
+	 * indexed by model row.
+	 */
+	public RangeSliderTableCellEditor(RangeColumn column) {
+		this.column = column;
+		slider.addChangeListener(new ChangeListener() {
+			@Override
+			public void stateChanged(ChangeEvent e) {
+				boolean wasAdjusting = adjusting;
+				adjusting = slider.getValueIsAdjusting();
+				if (wasAdjusting && !adjusting && modelRow >= 0)
+					stopCellEditing();
+			}
+		});
+	}
+
+	/**
+	 * Returns the editing slider, for configuration.
+	 */
+	public RangeSlider getSlider() {
+		return slider;
+	}
+
+	@Override
+	public Component getTableCellEditorComponent(JTable table, Object value,
+			boolean isSelected, int row, int column) {
+		modelRow = table.convertRowIndexToModel(row);
+		BoundedRangeModel model = slider.getModel();
+		long range = this.column != null ? this.column.get(modelRow)
+				: RangeColumn.rangeOf(value, model.getMinimum());
+		int lower = RangeColumn.lower(range);
+		int upper = RangeColumn.upper(range);
+		adjusting = false;
+		model.setRangeProperties(lower, upper - lower, model.getMinimum(),
+				model.getMaximum(), false);
+
+		slider.setBackground(table.getSelectionBackground());
+		return slider;
+	}
+
+	@Override
+	public Object getCellEditorValue() {
+		return RangeColumn.pack(slider.getLowerValue(), slider.getUpperValue());
+	}
+
+	@Override
+	public boolean stopCellEditing() {
+		if (column != null && modelRow >= 0)
+			column.set(modelRow, slider.getLowerValue(), slider.getUpperValue());
+		modelRow = -1;
+		return super.stopCellEditing();
+	}
+
+	@Override
+	public void cancelCellEditing() {
+		modelRow = -1;
+		super.cancelCellEditing();
+	}
+
+	/**
+	 * A RangeSlider that lays itself out as soon as its size changes, reusing
+	 * the geometry of the last few cell sizes.
+	 */
+	@SuppressWarnings("serial")
+	private static class CellSlider extends RangeSlider {
+
+		@Override
+		@Deprecated
+		public void reshape(int x, int y, int w, int h) {
+			reshapeAndLayout(x, y, w, h);
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package slider;
+
+import java.awt.Component;
+import java.awt.Rectangle;
+
+import javax.swing.BoundedRangeModel;
+import javax.swing.JTable;
+import javax.swing.table.TableCellRenderer;
+
+/**
+ * Renders a range in a table cell with a single rubber-stamp RangeSlider.
+ * <p>
+ * The ranges are read from a {@link RangeColumn} if one is given, so that
+ * painting a cell does not go through the boxed {@code TableModel} value.
+ * Otherwise the cell value must be in a form accepted by
+ * {@link RangeColumn#rangeOf}. Between cells only the model of the stamp
+ * changes, which moves the thumbs without laying the slider out again. The
+ * geometry of the last few cell sizes is kept, so one renderer may be shared
+ * by columns of different widths.
+ * <p>
+ * Configure the minimum, maximum, ticks and labels through
+ * {@link #getSlider()}.
+ *
+ * @see RangeSliderTableCellEditor
+ * @author johnchen902
+ */
+public class RangeSliderTableCellRenderer implements TableCellRenderer {
+
+	private final RangeColumn column;
+	private final RangeSlider slider = new StampSlider();
+
+	/**
+	 * Creates a renderer reading the ranges from the cell values.
+	 */
+	public RangeSliderTableCellRenderer() {
+		this(null);
+	}
+
+	/**
+	 * Creates a renderer reading the ranges from {@code column}, indexed by
+	 * model row.
+	 */
+	public RangeSliderTableCellRenderer(RangeColumn column) {
+		this.column = column;
+	}
+
+	/**
+	 * Returns the rubber-stamp slider, for configuration.
+	 */
+	public RangeSlider getSlider() {
+		return slider;
+	}
+
+	@Override
+	public Component getTableCellRendererComponent(JTable table, Object value,
+			boolean isSelected, boolean hasFocus, int row, int column) {
+		BoundedRangeModel model = slider.getModel();
+		long range = this.column != null ? this.column.get(table
+				.convertRowIndexToModel(row)) : RangeColumn.rangeOf(value,
+				model.getMinimum());
+		int lower = RangeColumn.lower(range);
+		int upper = RangeColumn.upper(range);
+		model.setRangeProperties(lower, upper - lower, model.getMinimum(),
+				model.getMaximum(), false);
+
+		slider.setBackground(isSelected ? table.getSelectionBackground()
+				: table.getBackground());
+		slider.setEnabled(table.isEnabled());
+		return slider;
+	}
+
+	/**
+	 * A RangeSlider that never repaints or revalidates itself, like
+	 * {@code DefaultTableCellRenderer}, and recalculates its geometry as soon
+	 * as its size changes rather than when the resize event arrives.
+	 */
+	@SuppressWarnings("serial")
+	private static class StampSlider extends RangeSlider {
+
+		@Override
+		@Deprecated
+		public void reshape(int x, int y, int w, int h) {
+			reshapeAndLayout(x, y, w, h);
+		}
+
+		@Override
+		public void invalidate() {
+		}
+
+		@Override
+		public void validate() {
+		}
+
+		@Override
+		public void revalidate() {
+		}
+
+		@Override
+		public void repaint(long tm, int x, int y, int width, int height) {
+		}
+
+		@Override
+		public void repaint(Rectangle r) {
+		}
+
+		@Override
+		public void repaint() {
+		}
+	}
+}
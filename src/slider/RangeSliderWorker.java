@@ -0,0 +1,286 @@
+package slider;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+/**
+ * Runs a job in the background for each new range of a range slider, such
+ * as a query or an aggregation, and hands the result of the newest range to
+ * the event dispatch thread.
+ * <p>
+ * At most one job runs at a time. When the range changes while a job is
+ * running, the job is cancelled by interrupting it, and a job for the latest
+ * range starts once it has stopped; the ranges in between are skipped. A
+ * result is handed to {@link #done} only if no range came after the one it
+ * was computed for, so each range is reported at most once, and never after
+ * a newer one. Jobs should therefore check {@link Thread#interrupted} now and
+ * then, or call interruptible methods, so that a drag does not wait on work
+ * nobody will see.
+ * <p>
+ * Jobs run on the given executor, by default a shared pool of daemon
+ * threads. Any executor will do, one running virtual threads included. The
+ * worker starts a job when the slider changes, or as a
+ * {@link ChangeDeliveryPolicy} says, for example only when a drag ends; call
+ * {@link #submit} for the first range. Apart from {@link #compute}, this
+ * class must be used on the event dispatch thread.
+ *
+ * @param <V>
+ *            the type of the results
+ * @author johnchen902
+ */
+public abstract class RangeSliderWorker<V> {
+
+	/**
+	 * The default executor, created on first use.
+	 */
+	private static class PoolHolder {
+		static final ExecutorService POOL = Executors
+				.newCachedThreadPool(new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, "RangeSliderWorker-"
+								+ count.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+	}
+
+	private final RangeSlider slider;
+	private final Executor executor;
+	private final ChangeListener sliderListener = new ChangeListener() {
+		@Override
+		public void stateChanged(ChangeEvent e) {
+			if (slider.getLowerValue() != lowerValue
+					|| slider.getUpperValue() != upperValue)
+				submit();
+		}
+	};
+
+	/**
+	 * The latest range submitted, the job running if any, and whether a job
+	 * for the latest range has to start when it stops.
+	 */
+	private int lowerValue, upperValue;
+	private long generation;
+	private Job running;
+	private boolean pending;
+
+	/**
+	 * Creates a worker for the ranges of {@code slider}, running jobs on a
+	 * shared pool of daemon threads.
+	 */
+	public RangeSliderWorker(RangeSlider slider) {
+		this(slider, PoolHolder.POOL);
+	}
+
+	/**
+	 * Creates a worker for the ranges of {@code slider}, running jobs on
+	 * {@code executor}.
+	 */
+	public RangeSliderWorker(RangeSlider slider, Executor executor) {
+		this(slider, executor, ChangeDeliveryPolicy.EVERY_CHANGE);
+	}
+
+	/**
+	 * Creates a worker for the ranges of {@code slider} delivered by
+	 * {@code policy}, running jobs on a shared pool of daemon threads.
+	 */
+	public RangeSliderWorker(RangeSlider slider, ChangeDeliveryPolicy policy) {
+		this(slider, PoolHolder.POOL, policy);
+	}
+
+	/**
+	 * Creates a worker for the ranges of {@code slider} delivered by
+	 * {@code policy}, running jobs on {@code executor}.
+	 */
+	public RangeSliderWorker(RangeSlider slider, Executor executor,
+			ChangeDeliveryPolicy policy) {
+		if (executor == null)
+			throw new NullPointerException("executor");
+		this.slider = slider;
+		this.executor = executor;
+		lowerValue = slider.getLowerValue();
+		upperValue = slider.getUpperValue();
+		slider.addChangeListener(sliderListener, policy);
+	}
+
+	public RangeSlider getSlider() {
+		return slider;
+	}
+
+	/**
+	 * Computes the result for a range. Called on a thread of the executor;
+	 * an interrupt means that the result is no longer wanted.
+	 */
+	protected abstract V compute(int lowerValue, int upperValue)
+			throws Exception;
+
+	/**
+	 * Receives the result for the latest range, on the event dispatch thread.
+	 */
+	protected abstract void done(int lowerValue, int upperValue, V result);
+
+	/**
+	 * Receives the exception thrown computing the result for the latest
+	 * range, on the event dispatch thread. By default, it is rethrown.
+	 */
+	protected void failed(int lowerValue, int upperValue, Exception e) {
+		throw new RuntimeException(e);
+	}
+
+	/**
+	 * Starts a job for the current range of the slider, cancelling the job
+	 * running if there is one.
+	 *
+	 * @throws RejectedExecutionException
+	 *             if the executor does not take the job
+	 */
+	public void submit() {
+		lowerValue = slider.getLowerValue();
+		upperValue = slider.getUpperValue();
+		generation++;
+		if (running == null) {
+			start();
+		} else {
+			running.cancel();
+			pending = true;
+		}
+	}
+
+	/**
+	 * Cancels the job running, if any, and drops its result. The worker
+	 * still starts a job at the next change of the slider.
+	 */
+	public void cancel() {
+		generation++;
+		pending = false;
+		if (running != null)
+			running.cancel();
+	}
+
+	/**
+	 * Stops following the slider and cancels the job running, if any.
+	 */
+	public void dispose() {
+		slider.removeChangeListener(sliderListener);
+		cancel();
+	}
+
+	/**
+	 * Returns whether a job is running, cancelled or not.
+	 */
+	public boolean isRunning() {
+		return running != null;
+	}
+
+	/**
+	 * Starts a job for the latest range.
+	 *
+	 * @throws RejectedExecutionException
+	 *             if the executor does not take the job, which is then
+	 *             dropped
+	 */
+	private void start() {
+		pending = false;
+		running = new Job(generation, lowerValue, upperValue);
+		try {
+			executor.execute(running);
+		} catch (RejectedExecutionException e) {
+			// The job never runs, so it never finishes and clears this.
+			running = null;
+			throw e;
+		}
+	}
+
+	/**
+	 * Hands over the result of {@code job}, which has stopped, if it is for
+	 * the latest range, or else starts a job for the latest range.
+	 */
+	private void finished(Job job) {
+		running = null;
+		if (pending) {
+			start();
+		} else if (job.generation == generation && job.completed) {
+			if (job.failure == null)
+				done(job.lowerValue, job.upperValue, job.result);
+			else
+				failed(job.lowerValue, job.upperValue, job.failure);
+		}
+	}
+
+	/**
+	 * A job for one range. The thread running it is interrupted only while
+	 * it computes, so that a cancel arriving late does not interrupt the
+	 * next task of the executor.
+	 */
+	private final class Job implements Runnable {
+		final long generation;
+		final int lowerValue, upperValue;
+
+		private Thread thread;
+		private boolean cancelled;
+
+		/**
+		 * The outcome, published to the event dispatch thread by
+		 * {@code invokeLater}.
+		 */
+		boolean completed;
+		V result;
+		Exception failure;
+
+		Job(long generation, int lowerValue, int upperValue) {
+			this.generation = generation;
+			this.lowerValue = lowerValue;
+			this.upperValue = upperValue;
+		}
+
+		@Override
+		public void run() {
+			try {
+				synchronized (this) {
+					if (cancelled)
+						return;
+					thread = Thread.currentThread();
+				}
+				try {
+					result = compute(lowerValue, upperValue);
+					completed = true;
+				} catch (InterruptedException e) {
+					// Cancelled.
+				} catch (Exception e) {
+					failure = e;
+					completed = true;
+				} finally {
+					synchronized (this) {
+						thread = null;
+					}
+					Thread.interrupted();
+				}
+			} finally {
+				SwingUtilities.invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						finished(Job.this);
+					}
+				});
+			}
+		}
+
+		synchronized void cancel() {
+			cancelled = true;
+			if (thread != null)
+				thread.interrupt();
+		}
+	}
+}
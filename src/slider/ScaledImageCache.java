@@ -0,0 +1,162 @@
+package slider;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.PrintGraphics;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.print.PrinterGraphics;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A small least-recently-used cache of images rendered at device resolution.
+ * <p>
+ * Images are keyed by the logical size, the size in device pixels and a state
+ * key supplied by the caller, so the same region painted on a 100% and a 200%
+ * screen gets two separate images. Cached images are drawn 1:1 in device
+ * space, which avoids both the blur and the resampling pass of scaling a
+ * logical-size image up to the screen resolution.
+ *
+ * @author johnchen902
+ */
+final class ScaledImageCache {
+
+	/**
+	 * Paints the content of a cached image.
+	 */
+	interface Renderer {
+		/**
+		 * Paints the content at logical size. The graphics have been scaled
+		 * to device resolution already.
+		 */
+		void paint(Graphics2D g, int width, int height);
+	}
+
+	private final Map<Key, BufferedImage> images;
+
+	/**
+	 * Creates a cache holding at most {@code capacity} images.
+	 */
+	ScaledImageCache(final int capacity) {
+		images = new LinkedHashMap<Key, BufferedImage>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<Key, BufferedImage> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Paints the region {@code (x, y, width, height)} from the cache, asking
+	 * {@code renderer} to paint it first if there is no image for the current
+	 * device scale and {@code state}. If the transform of {@code g} is not a
+	 * plain positive scale, or {@code g} is a printer graphics, the renderer
+	 * paints directly.
+	 */
+	void paint(Graphics g, int x, int y, int width, int height, Object state,
+			Renderer renderer) {
+		if (width <= 0 || height <= 0)
+			return;
+		Graphics2D g2 = (Graphics2D) g;
+		AffineTransform at = g2.getTransform();
+		if (!isScaleOnly(at) || g instanceof PrinterGraphics
+				|| g instanceof PrintGraphics) {
+			g2.translate(x, y);
+			renderer.paint(g2, width, height);
+			g2.translate(-x, -y);
+			return;
+		}
+
+		// Snap the logical rectangle to whole device pixels.
+		int deviceX = (int) Math.round(at.getTranslateX() + x
+				* at.getScaleX());
+		int deviceY = (int) Math.round(at.getTranslateY() + y
+				* at.getScaleY());
+		int deviceWidth = (int) Math.round(at.getTranslateX() + (x + width)
+				* at.getScaleX())
+				- deviceX;
+		int deviceHeight = (int) Math.round(at.getTranslateY() + (y + height)
+				* at.getScaleY())
+				- deviceY;
+		if (deviceWidth <= 0 || deviceHeight <= 0)
+			return;
+
+		Key key = new Key(width, height, deviceWidth, deviceHeight, state);
+		BufferedImage image = get(key);
+		if (image == null) {
+			image = new BufferedImage(deviceWidth, deviceHeight,
+					BufferedImage.TYPE_INT_ARGB_PRE);
+			Graphics2D ig = image.createGraphics();
+			ig.scale((double) deviceWidth / width, (double) deviceHeight
+					/ height);
+			renderer.paint(ig, width, height);
+			ig.dispose();
+			put(key, image);
+		}
+
+		Graphics2D dg = (Graphics2D) g2.create();
+		dg.setTransform(new AffineTransform());
+		dg.drawImage(image, deviceX, deviceY, null);
+		dg.dispose();
+	}
+
+	/**
+	 * Drops all cached images.
+	 */
+	synchronized void flush() {
+		images.clear();
+	}
+
+	private synchronized BufferedImage get(Key key) {
+		return images.get(key);
+	}
+
+	private synchronized void put(Key key, BufferedImage image) {
+		images.put(key, image);
+	}
+
+	private static boolean isScaleOnly(AffineTransform at) {
+		int type = at.getType() & ~(AffineTransform.TYPE_TRANSLATION
+				| AffineTransform.TYPE_UNIFORM_SCALE
+				| AffineTransform.TYPE_GENERAL_SCALE);
+		return type == 0 && at.getScaleX() > 0 && at.getScaleY() > 0;
+	}
+
+	private static final class Key {
+		private final int width, height, deviceWidth, deviceHeight;
+		private final Object state;
+
+		Key(int width, int height, int deviceWidth, int deviceHeight,
+				Object state) {
+			this.width = width;
+			this.height = height;
+			this.deviceWidth = deviceWidth;
+			this.deviceHeight = deviceHeight;
+			this.state = state;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+			Key k = (Key) obj;
+			return width == k.width && height == k.height
+					&& deviceWidth == k.deviceWidth
+					&& deviceHeight == k.deviceHeight
+					&& (state == null ? k.state == null : state.equals(k.state));
+		}
+
+		@Override
+		public int hashCode() {
+			int h = width;
+			h = h * 31 + height;
+			h = h * 31 + deviceWidth;
+			h = h * 31 + deviceHeight;
+			return h * 31 + (state == null ? 0 : state.hashCode());
+		}
+	}
+}
@@ -48,28 +48,39 @@ final class SliderRangeTrackPainter extends AbstractRegionPainter {
 	private Color color11 = decodeColor("nimbusSelection", 0.0f, -0.03626889f,
 			0.04705882f, 0);
 
+	/**
+	 * Images of the track at device resolution. AbstractRegionPainter caches
+	 * at logical size and scales the image up on HiDPI screens, so we ask it
+	 * not to cache and cache here instead.
+	 */
+	private final ScaledImageCache cache = new ScaledImageCache(8);
+	private final ScaledImageCache.Renderer renderer = new ScaledImageCache.Renderer() {
+		@Override
+		public void paint(Graphics2D g, int width, int height) {
+			configureGraphics(g);
+			if (enabled)
+				paintBackgroundEnabled(g);
+			else
+				paintBackgroundDisabled(g);
+		}
+	};
+
 	private static class MyPaintContext extends PaintContext {
-		public MyPaintContext(boolean enabled) {
-			super(new Insets(6, 5, 6, 5), new Dimension(23, 17), false,
-					enabled ? CacheMode.FIXED_SIZES
-							: CacheMode.NINE_SQUARE_SCALE, enabled ? 1.0
-							: 1.0 / 0.0, enabled ? 1.0 : 0.0);
+		public MyPaintContext() {
+			super(new Insets(6, 5, 6, 5), new Dimension(23, 17), false);
 		}
 	}
 
 	public SliderRangeTrackPainter(boolean enabled) {
 		super();
 		this.enabled = enabled;
-		this.ctx = new MyPaintContext(enabled);
+		this.ctx = new MyPaintContext();
 	}
 
 	@Override
 	protected void doPaint(Graphics2D g, JComponent c, int width, int height,
 			Object[] extendedCacheKeys) {
-		if (enabled)
-			paintBackgroundEnabled(g);
-		else
-			paintBackgroundDisabled(g);
+		cache.paint(g, 0, 0, width, height, null, renderer);
 	}
 
 	@Override
@@ -0,0 +1,461 @@
+package slider;
+
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+import javax.swing.JSlider;
+
+/**
+ * A track backdrop drawing a series of points, such as a time series, as a
+ * line along the track, with the part between the thumbs highlighted.
+ * <p>
+ * The x of each point is a slider value; the y values are scaled to span the
+ * track. Points outside the visible range of the slider are not drawn. The
+ * series is reduced to the pixel columns of the track: each column keeps the
+ * first, last, lowest and highest y of the points that fall in it, which
+ * draws the same line as all of the points would. The lowest and highest y
+ * of every block of 16 points, of every two blocks, and so on, are kept as
+ * the points are appended; a column is then found by binary search on x and
+ * reduced from a few blocks per level. The reductions for the last few track
+ * lengths and visible ranges painted are kept, and only the columns that
+ * points appended later fall in are reduced again, so resizing or zooming
+ * the slider costs work in proportion to the columns, not the points.
+ * <p>
+ * Points are appended in order of x, from any thread. Sliders repaint at
+ * most once per frame, and only the columns the new points reach, unless the
+ * new points extend the range of y.
+ *
+ * @author johnchen902
+ */
+public class SparklineBackdrop extends AbstractTrackBackdrop {
+
+	private final Object lock = new Object();
+	private double[] xs = new double[1024];
+	private double[] ys = new double[1024];
+	private int size;
+	private double minY = Double.POSITIVE_INFINITY;
+	private double maxY = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * The number of points summarized by the bottom level of the pyramid.
+	 */
+	private static final int BLOCK = 16;
+
+	/**
+	 * The lowest and highest y of each block of points, then of each two
+	 * blocks, and so on; {@code lows[k][i]} covers the points from
+	 * {@code (i << k) * BLOCK} to {@code ((i + 1) << k) * BLOCK}. Rebuilt
+	 * when the arrays grow, updated as points are appended otherwise.
+	 */
+	private double[][] lows, highs;
+
+	private final Columns[] columns = new Columns[4];
+	private int nextColumns;
+
+	private int publishedSize;
+	private boolean yRangeGrown;
+	private final FrameCoalescer publisher = new FrameCoalescer(
+			new Runnable() {
+				@Override
+				public void run() {
+					publishAppends();
+				}
+			});
+
+	/**
+	 * Creates an empty sparkline.
+	 */
+	public SparklineBackdrop() {
+	}
+
+	/**
+	 * Creates a sparkline of the points ({@code xs[i]}, {@code ys[i]}).
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the arrays differ in length, a value is not finite, or
+	 *             the x values decrease
+	 */
+	public SparklineBackdrop(double[] xs, double[] ys) {
+		if (xs.length != ys.length)
+			throw new IllegalArgumentException("xs.length != ys.length");
+		synchronized (lock) {
+			add(xs, ys, 0, xs.length);
+			publishedSize = size;
+			yRangeGrown = false;
+		}
+	}
+
+	/**
+	 * Appends the point ({@code x}, {@code y}).
+	 *
+	 * @throws IllegalArgumentException
+	 *             if a value is not finite, or {@code x} is less than the x
+	 *             of the last point
+	 */
+	public void append(double x, double y) {
+		append(new double[] { x }, new double[] { y }, 0, 1);
+	}
+
+	/**
+	 * Appends {@code length} points from {@code offset}, the point {@code i}
+	 * being ({@code xs[i]}, {@code ys[i]}). Either all of the points are
+	 * appended or none of them is.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if a value is not finite, or the x values decrease
+	 * @throws IndexOutOfBoundsException
+	 *             if the points are not all within the arrays
+	 */
+	public void append(double[] xs, double[] ys, int offset, int length) {
+		if (offset < 0 || length < 0
+				|| offset > Math.min(xs.length, ys.length) - length)
+			throw new IndexOutOfBoundsException("offset " + offset
+					+ ", length " + length);
+		synchronized (lock) {
+			add(xs, ys, offset, length);
+			publisher.request();
+		}
+	}
+
+	/**
+	 * Returns the number of points.
+	 */
+	public int size() {
+		synchronized (lock) {
+			return size;
+		}
+	}
+
+	/**
+	 * Checks and adds points. Called holding the lock.
+	 */
+	private void add(double[] xs, double[] ys, int offset, int length) {
+		double lastX = size == 0 ? Double.NEGATIVE_INFINITY
+				: this.xs[size - 1];
+		for (int i = offset; i < offset + length; i++) {
+			if (Double.isNaN(xs[i]) || Double.isInfinite(xs[i])
+					|| Double.isNaN(ys[i]) || Double.isInfinite(ys[i]))
+				throw new IllegalArgumentException("point " + i
+						+ " is not finite");
+			if (xs[i] < lastX)
+				throw new IllegalArgumentException("x decreases at point "
+						+ i);
+			lastX = xs[i];
+		}
+		if (size + length > this.xs.length) {
+			int capacity = Math.max(size + length, this.xs.length * 2);
+			this.xs = Arrays.copyOf(this.xs, capacity);
+			this.ys = Arrays.copyOf(this.ys, capacity);
+			lows = highs = null;
+		}
+		System.arraycopy(xs, offset, this.xs, size, length);
+		System.arraycopy(ys, offset, this.ys, size, length);
+		if (lows == null) {
+			size += length;
+			buildPyramid();
+		} else {
+			for (int i = size; i < size + length; i++)
+				raise(i);
+			size += length;
+		}
+		for (int i = offset; i < offset + length; i++) {
+			if (ys[i] < minY) {
+				minY = ys[i];
+				yRangeGrown = true;
+			}
+			if (ys[i] > maxY) {
+				maxY = ys[i];
+				yRangeGrown = true;
+			}
+		}
+	}
+
+	/**
+	 * Builds the pyramid over the points and the capacity of the arrays.
+	 * Called holding the lock.
+	 */
+	private void buildPyramid() {
+		int depth = 1;
+		int blocks = (xs.length + BLOCK - 1) / BLOCK;
+		for (int length = blocks; length > 1; length -= length / 2)
+			depth++;
+		lows = new double[depth][];
+		highs = new double[depth][];
+		for (int k = 0; k < depth; k++) {
+			lows[k] = new double[blocks];
+			highs[k] = new double[blocks];
+			Arrays.fill(lows[k], Double.POSITIVE_INFINITY);
+			Arrays.fill(highs[k], Double.NEGATIVE_INFINITY);
+			blocks -= blocks / 2;
+		}
+		for (int i = 0; i < size; i++)
+			raise(i);
+	}
+
+	/**
+	 * Widens the blocks over point {@code i} to its y. Called holding the
+	 * lock.
+	 */
+	private void raise(int i) {
+		double y = ys[i];
+		int block = i / BLOCK;
+		for (int k = 0; k < lows.length; k++) {
+			lows[k][block] = Math.min(lows[k][block], y);
+			highs[k][block] = Math.max(highs[k][block], y);
+			block >>= 1;
+		}
+	}
+
+	/**
+	 * Returns the lowest y of the points from {@code from} to {@code to}.
+	 * Called holding the lock.
+	 */
+	private double low(int from, int to) {
+		double low = Double.POSITIVE_INFINITY;
+		int blockFrom = (from + BLOCK - 1) / BLOCK, blockTo = to / BLOCK;
+		if (blockFrom >= blockTo) {
+			for (int i = from; i < to; i++)
+				low = Math.min(low, ys[i]);
+			return low;
+		}
+		for (int i = from; i < blockFrom * BLOCK; i++)
+			low = Math.min(low, ys[i]);
+		for (int i = blockTo * BLOCK; i < to; i++)
+			low = Math.min(low, ys[i]);
+		for (int k = 0; blockFrom < blockTo; k++) {
+			if ((blockFrom & 1) != 0)
+				low = Math.min(low, lows[k][blockFrom++]);
+			if ((blockTo & 1) != 0)
+				low = Math.min(low, lows[k][--blockTo]);
+			blockFrom >>= 1;
+			blockTo >>= 1;
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the highest y of the points from {@code from} to {@code to}.
+	 * Called holding the lock.
+	 */
+	private double high(int from, int to) {
+		double high = Double.NEGATIVE_INFINITY;
+		int blockFrom = (from + BLOCK - 1) / BLOCK, blockTo = to / BLOCK;
+		if (blockFrom >= blockTo) {
+			for (int i = from; i < to; i++)
+				high = Math.max(high, ys[i]);
+			return high;
+		}
+		for (int i = from; i < blockFrom * BLOCK; i++)
+			high = Math.max(high, ys[i]);
+		for (int i = blockTo * BLOCK; i < to; i++)
+			high = Math.max(high, ys[i]);
+		for (int k = 0; blockFrom < blockTo; k++) {
+			if ((blockFrom & 1) != 0)
+				high = Math.max(high, highs[k][blockFrom++]);
+			if ((blockTo & 1) != 0)
+				high = Math.max(high, highs[k][--blockTo]);
+			blockFrom >>= 1;
+			blockTo >>= 1;
+		}
+		return high;
+	}
+
+	/**
+	 * Reports the points appended since the last publish as changed.
+	 */
+	private void publishAppends() {
+		double fromValue, toValue;
+		boolean all;
+		synchronized (lock) {
+			if (size == publishedSize && !yRangeGrown)
+				return;
+			fromValue = xs[Math.max(0, publishedSize - 1)];
+			toValue = xs[size - 1];
+			all = yRangeGrown;
+			publishedSize = size;
+			yRangeGrown = false;
+		}
+		if (all)
+			fireStateChanged();
+		else
+			fireStateChanged(fromValue, toValue);
+	}
+
+	@Override
+	public void paint(Graphics g, RangeSlider slider, Rectangle track,
+			Rectangle range, int minPosition, int maxPosition) {
+		int min = slider.getVisibleMinimum();
+		int max = slider.getVisibleMaximum();
+		if (max <= min)
+			return;
+		int[][] line;
+		synchronized (lock) {
+			if (size == 0)
+				return;
+			Columns c = getColumns(min, max,
+					Math.abs(maxPosition - minPosition) + 1);
+			line = getLine(g.getClipBounds(), slider, c, track, minPosition,
+					maxPosition);
+		}
+		// Drawn outside the lock, so that appending never waits for painting.
+		boolean horizontal = slider.getOrientation() == JSlider.HORIZONTAL;
+		int[] xs = horizontal ? line[0] : line[1];
+		int[] ys = horizontal ? line[1] : line[0];
+		g.setColor(colorFor(slider, getColor(), 0x70));
+		g.drawPolyline(xs, ys, xs.length);
+		if (!slider.isEnabled())
+			return;
+
+		Graphics rangeGraphics = g.create();
+		try {
+			rangeGraphics.clipRect(range.x, range.y, range.width,
+					range.height);
+			rangeGraphics.setColor(colorFor(slider, getSelectionColor(), 0xE0));
+			rangeGraphics.drawPolyline(xs, ys, xs.length);
+		} finally {
+			rangeGraphics.dispose();
+		}
+	}
+
+	/**
+	 * Returns the polyline through the first, lowest, highest and last y of
+	 * each of the columns that intersect {@code clip}, as the positions along
+	 * the track and the values across it of its vertices. Called holding the
+	 * lock.
+	 */
+	private int[][] getLine(Rectangle clip, RangeSlider slider, Columns c,
+			Rectangle track, int minPosition, int maxPosition) {
+		boolean horizontal = slider.getOrientation() == JSlider.HORIZONTAL;
+		int direction = maxPosition >= minPosition ? 1 : -1;
+		int first = 0, last = c.n;
+		if (clip != null) {
+			int a = ((horizontal ? clip.x : clip.y) - minPosition) * direction;
+			int b = ((horizontal ? clip.x + clip.width : clip.y
+					+ clip.height) - minPosition)
+					* direction;
+			first = Math.max(0, Math.min(a, b) - 1);
+			last = Math.min(c.n, Math.max(a, b) + 2);
+			// Start from the column before, for the line joining them.
+			while (first > 0 && Double.isNaN(c.first[first]))
+				first--;
+		}
+		int depth = (horizontal ? track.height : track.width) - 1;
+		double yScale = maxY > minY ? depth / (maxY - minY) : 0;
+		int base = horizontal ? track.y + track.height - 1 : track.x;
+		int sign = horizontal ? -1 : 1;
+		int offset = maxY > minY ? 0 : depth / 2;
+
+		int[] positions = new int[4 * Math.max(0, last - first)];
+		int[] values = new int[positions.length];
+		int points = 0;
+		for (int i = first; i < last; i++) {
+			if (Double.isNaN(c.first[i]))
+				continue;
+			int position = minPosition + direction * i;
+			Arrays.fill(positions, points, points + 4, position);
+			values[points++] = base + sign
+					* (offset + (int) Math.round((c.first[i] - minY) * yScale));
+			values[points++] = base + sign
+					* (offset + (int) Math.round((c.low[i] - minY) * yScale));
+			values[points++] = base + sign
+					* (offset + (int) Math.round((c.high[i] - minY) * yScale));
+			values[points++] = base + sign
+					* (offset + (int) Math.round((c.last[i] - minY) * yScale));
+		}
+		return new int[][] { Arrays.copyOf(positions, points),
+				Arrays.copyOf(values, points) };
+	}
+
+	/**
+	 * Returns the series reduced to {@code n} columns from {@code min} to
+	 * {@code max}, with every point reduced. Called holding the lock.
+	 */
+	private Columns getColumns(int min, int max, int n) {
+		Columns c = null;
+		for (Columns cached : columns) {
+			if (cached != null && cached.min == min && cached.max == max
+					&& cached.n == n)
+				c = cached;
+		}
+		if (c == null) {
+			c = columns[nextColumns] = new Columns(min, max, n);
+			nextColumns = (nextColumns + 1) % columns.length;
+		}
+		reduce(c);
+		return c;
+	}
+
+	/**
+	 * Reduces the columns that the points appended since the last reduction
+	 * of {@code c} fall in, which is all of them the first time. Called
+	 * holding the lock.
+	 */
+	private void reduce(Columns c) {
+		if (c.reduced == size)
+			return;
+		// The column of the last point reduced may have gained points too.
+		int start = Math.max(0, c.reduced - 1);
+		int from = (int) Math.max(0, c.column(xs[start]));
+		int to = (int) Math.min(c.n - 1, c.column(xs[size - 1]));
+		int i = search(c, 0, from);
+		for (int k = from; k <= to; k++) {
+			int j = search(c, i, k + 1);
+			if (j > i) {
+				c.first[k] = ys[i];
+				c.last[k] = ys[j - 1];
+				c.low[k] = low(i, j);
+				c.high[k] = high(i, j);
+			}
+			i = j;
+		}
+		c.reduced = size;
+	}
+
+	/**
+	 * Returns the first point from {@code from} on in column {@code k} or
+	 * after, or the number of points if there is none. Called holding the
+	 * lock.
+	 */
+	private int search(Columns c, int from, int k) {
+		int to = size;
+		while (from < to) {
+			int mid = (from + to) >>> 1;
+			if (c.column(xs[mid]) < k)
+				from = mid + 1;
+			else
+				to = mid;
+		}
+		return from;
+	}
+
+	/**
+	 * The series reduced to the columns of one track length and visible
+	 * range. Empty columns hold {@code NaN}.
+	 */
+	private static final class Columns {
+		final int min, max, n;
+		final double scale;
+		final double[] first, last, low, high;
+		int reduced;
+
+		Columns(int min, int max, int n) {
+			this.min = min;
+			this.max = max;
+			this.n = n;
+			scale = (double) (n - 1) / ((double) max - min);
+			first = new double[n];
+			last = new double[n];
+			low = new double[n];
+			high = new double[n];
+			Arrays.fill(first, Double.NaN);
+		}
+
+		/**
+		 * Returns the column of {@code x}, which may be outside the track.
+		 */
+		double column(double x) {
+			return Math.rint((x - min) * scale);
+		}
+	}
+}
@@ -0,0 +1,212 @@
+package slider;
+
+import java.util.Arrays;
+
+/**
+ * A histogram backdrop of data that keeps arriving, such as ticks or events.
+ * <p>
+ * Values are appended in batches from any thread and counted into the fine
+ * bins as they arrive; nothing else is kept of them. A value outside the
+ * domain doubles the domain toward it, merging pairs of fine bins, as many
+ * times as needed, so the counts stay exact at a coarser resolution.
+ * Infinite values and {@code NaN} are not counted.
+ * <p>
+ * The counts are published at most once per frame: the first append after a
+ * publish schedules the next one a frame later, on the event dispatch
+ * thread. Sliders then repaint only the bars over the fine bins that
+ * changed, unless the domain grew or a bar outgrew the scale of the bars.
+ * The scale is set with some headroom so that it rarely has to change.
+ *
+ * @author johnchen902
+ */
+public class StreamingHistogramBackdrop extends HistogramBackdrop {
+
+	private static final double HEADROOM = 1.25;
+
+	/**
+	 * The number of fine bins, fewer than for data known up front as they
+	 * are copied for every publish.
+	 */
+	private static final int BINS = 4096;
+
+	private final Object lock = new Object();
+	private double start, end, scale;
+	private final long[] counts = new long[BINS];
+	private long count;
+	private int dirtyFrom = Integer.MAX_VALUE, dirtyTo = -1;
+	private boolean domainGrown;
+
+	private final FrameCoalescer publisher = new FrameCoalescer(
+			new Runnable() {
+				@Override
+				public void run() {
+					publishAppends();
+				}
+			});
+
+	/**
+	 * Creates an empty histogram over the domain from {@code min} to
+	 * {@code max}, which grows as values outside it are appended.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if {@code min} is not less than {@code max}, or either is
+	 *             infinite
+	 */
+	public StreamingHistogramBackdrop(double min, double max) {
+		super(emptyFine(min, max), HEADROOM);
+		start = min;
+		end = max;
+		scale = BINS / (max - min);
+	}
+
+	private static Fine emptyFine(double min, double max) {
+		if (!(min < max) || Double.isInfinite(max - min))
+			throw new IllegalArgumentException("min " + min + ", max " + max);
+		return new Fine(min, max, new long[BINS]);
+	}
+
+	/**
+	 * Appends one value.
+	 */
+	public void append(double value) {
+		synchronized (lock) {
+			if (add(value))
+				publisher.request();
+		}
+	}
+
+	/**
+	 * Appends {@code length} values of {@code values} from {@code offset}.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if the values are not all within the array
+	 */
+	public void append(int[] values, int offset, int length) {
+		checkRange(values.length, offset, length);
+		synchronized (lock) {
+			boolean added = false;
+			for (int i = offset; i < offset + length; i++)
+				added |= add(values[i]);
+			if (added)
+				publisher.request();
+		}
+	}
+
+	/**
+	 * Appends {@code length} values of {@code values} from {@code offset}.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if the values are not all within the array
+	 */
+	public void append(long[] values, int offset, int length) {
+		checkRange(values.length, offset, length);
+		synchronized (lock) {
+			boolean added = false;
+			for (int i = offset; i < offset + length; i++)
+				added |= add(values[i]);
+			if (added)
+				publisher.request();
+		}
+	}
+
+	/**
+	 * Appends {@code length} values of {@code values} from {@code offset}.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if the values are not all within the array
+	 */
+	public void append(double[] values, int offset, int length) {
+		checkRange(values.length, offset, length);
+		synchronized (lock) {
+			boolean added = false;
+			for (int i = offset; i < offset + length; i++)
+				added |= add(values[i]);
+			if (added)
+				publisher.request();
+		}
+	}
+
+	private static void checkRange(int arrayLength, int offset, int length) {
+		if (offset < 0 || length < 0 || offset > arrayLength - length)
+			throw new IndexOutOfBoundsException("offset " + offset
+					+ ", length " + length + ", array length " + arrayLength);
+	}
+
+	/**
+	 * Returns the number of values counted so far.
+	 */
+	public long getCount() {
+		synchronized (lock) {
+			return count;
+		}
+	}
+
+	/**
+	 * Counts {@code value}, growing the domain if needed. Called holding the
+	 * lock.
+	 *
+	 * @return whether the value was counted
+	 */
+	private boolean add(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value))
+			return false;
+		if (value < start || value > end)
+			grow(value);
+		int bin = Math.min(BINS - 1, (int) ((value - start) * scale));
+		counts[bin]++;
+		count++;
+		dirtyFrom = Math.min(dirtyFrom, bin);
+		dirtyTo = Math.max(dirtyTo, bin);
+		return true;
+	}
+
+	/**
+	 * Doubles the domain toward {@code value} until it is covered, merging
+	 * pairs of fine bins into one half. Called holding the lock.
+	 */
+	private void grow(double value) {
+		int half = BINS / 2;
+		while (value < start || value > end) {
+			double width = end - start;
+			if (value < start) {
+				for (int i = BINS - 1; i >= half; i--)
+					counts[i] = counts[2 * (i - half)]
+							+ counts[2 * (i - half) + 1];
+				Arrays.fill(counts, 0, half, 0);
+				start -= width;
+			} else {
+				for (int i = 0; i < half; i++)
+					counts[i] = counts[2 * i] + counts[2 * i + 1];
+				Arrays.fill(counts, half, BINS, 0);
+				end += width;
+			}
+		}
+		scale = BINS / (end - start);
+		domainGrown = true;
+	}
+
+	/**
+	 * Publishes the counts appended since the last publish.
+	 */
+	private void publishAppends() {
+		Fine fine;
+		double fromValue, toValue;
+		synchronized (lock) {
+			if (dirtyTo < 0 && !domainGrown)
+				return;
+			fine = new Fine(start, end, counts.clone());
+			if (domainGrown) {
+				fromValue = Double.NEGATIVE_INFINITY;
+				toValue = Double.POSITIVE_INFINITY;
+			} else {
+				double binWidth = (end - start) / BINS;
+				fromValue = start + dirtyFrom * binWidth;
+				toValue = start + (dirtyTo + 1) * binWidth;
+			}
+			dirtyFrom = Integer.MAX_VALUE;
+			dirtyTo = -1;
+			domainGrown = false;
+		}
+		publish(fine, fromValue, toValue);
+	}
+}
@@ -4,6 +4,7 @@ import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
+import java.awt.GraphicsEnvironment;
 import java.awt.Insets;
 import java.awt.Point;
 import java.awt.Rectangle;
@@ -134,7 +135,7 @@ public class SynthRangeSliderUI extends BasicRangeSliderUI implements
 	private void updateStyle(JSlider c) {
 		SynthContext context = getContextByState(c, ENABLED);
 		SynthStyle oldStyle = style;
-		style = (context = updateStyle(context, this)).getStyle();
+		style = (context = updateStyle(context, oldStyle)).getStyle();
 
 		if (style != oldStyle) {
 			thumbWidth = style.getInt(context, "Slider.thumbWidth", 30);
@@ -164,6 +165,7 @@ public class SynthRangeSliderUI extends BasicRangeSliderUI implements
 			trackHeight = thumbHeight + trackBorder * 2;
 
 			paintValue = style.getBoolean(context, "Slider.paintValue", true);
+			invalidateLayoutCaches();
 			if (oldStyle != null) {
 				uninstallKeyboardActions(c);
 				installKeyboardActions(c);
@@ -225,13 +227,7 @@ public class SynthRangeSliderUI extends BasicRangeSliderUI implements
 	 * @inheritDoc
 	 */
 	@Override
-	public int getBaseline(JComponent c, int width, int height) {
-		if (c == null) {
-			throw new NullPointerException("Component must be non-null");
-		}
-		if (width < 0 || height < 0) {
-			throw new IllegalArgumentException("Width and height must be >= 0");
-		}
+	protected int calculateBaseline(int width, int height) {
 		if (slider.getPaintLabels() && labelsHaveSameBaselines()) {
 			// Get the insets for the track.
 			Insets trackInsets = new Insets(0, 0, 0, 0);
@@ -293,7 +289,7 @@ public class SynthRangeSliderUI extends BasicRangeSliderUI implements
 	 * @inheritDoc
 	 */
 	@Override
-	public Dimension getPreferredSize(JComponent c) {
+	protected Dimension calculatePreferredSize() {
 		recalculateIfInsetsChanged();
 		Dimension d = new Dimension(contentRect.width, contentRect.height);
 		if (slider.getOrientation() == JSlider.VERTICAL) {
@@ -311,7 +307,7 @@ public class SynthRangeSliderUI extends BasicRangeSliderUI implements
 	 * @inheritDoc
 	 */
 	@Override
-	public Dimension getMinimumSize(JComponent c) {
+	protected Dimension calculateMinimumSize() {
 		recalculateIfInsetsChanged();
 		Dimension d = new Dimension(contentRect.width, contentRect.height);
 		if (slider.getOrientation() == JSlider.VERTICAL) {
@@ -519,6 +515,33 @@ public class SynthRangeSliderUI extends BasicRangeSliderUI implements
 		return pad;
 	}
 
+	@Override
+	protected Rectangle getValueRepaintBounds() {
+		Rectangle r = super.getValueRepaintBounds();
+		if (paintValue) {
+			// The value is centred on the lower thumb but kept inside the
+			// slider, so its exact place is only known when painted.
+			Rectangle value = new Rectangle(valueRect);
+			value.x = 0;
+			value.width = slider.getWidth();
+			r = r.union(value);
+		}
+		return r;
+	}
+
+	@Override
+	Rectangle[] getSizeDependentRects() {
+		return new Rectangle[] { focusRect, contentRect, labelRect, tickRect,
+				trackRect, valueRect };
+	}
+
+	@Override
+	Rectangle getValueDependentBounds() {
+		Rectangle r = super.getValueDependentBounds();
+		// The value is painted next to the lower thumb.
+		return paintValue ? r.union(valueRect) : r;
+	}
+
 	/**
 	 * @inheritDoc
 	 */
@@ -530,7 +553,10 @@ public class SynthRangeSliderUI extends BasicRangeSliderUI implements
 		} else {
 			lowerThumbRect.x += trackBorder;
 		}
-		Point mousePosition = slider.getMousePosition();
+		// There is no mouse to hover over the thumbs in a headless
+		// environment, where getMousePosition throws.
+		Point mousePosition = GraphicsEnvironment.isHeadless() ? null
+				: slider.getMousePosition();
 		if (mousePosition != null) {
 			updateThumbState(mousePosition.x, mousePosition.y);
 		}
@@ -555,8 +581,8 @@ public class SynthRangeSliderUI extends BasicRangeSliderUI implements
 	 */
 	@Override
 	protected int xPositionForValue(int value) {
-		int min = slider.getMinimum();
-		int max = slider.getMaximum();
+		int min = slider.getVisibleMinimum();
+		int max = slider.getVisibleMaximum();
 		int trackLeft = trackRect.x + lowerThumbRect.width / 2 + trackBorder;
 		int trackRight = trackRect.x + trackRect.width - lowerThumbRect.width
 				/ 2 - trackBorder;
@@ -584,8 +610,8 @@ public class SynthRangeSliderUI extends BasicRangeSliderUI implements
 	 */
 	@Override
 	protected int yPositionForValue(int value, int trackY, int trackHeight) {
-		int min = slider.getMinimum();
-		int max = slider.getMaximum();
+		int min = slider.getVisibleMinimum();
+		int max = slider.getVisibleMaximum();
 		int trackTop = trackY + lowerThumbRect.height / 2 + trackBorder;
 		int trackBottom = trackY + trackHeight - lowerThumbRect.height / 2
 				- trackBorder;
@@ -614,8 +640,8 @@ public class SynthRangeSliderUI extends BasicRangeSliderUI implements
 	@Override
 	protected int valueForYPosition(int yPos) {
 		int value;
-		int minValue = slider.getMinimum();
-		int maxValue = slider.getMaximum();
+		int minValue = slider.getVisibleMinimum();
+		int maxValue = slider.getVisibleMaximum();
 		int trackTop = trackRect.y + lowerThumbRect.height / 2 + trackBorder;
 		int trackBottom = trackRect.y + trackRect.height
 				- lowerThumbRect.height / 2 - trackBorder;
@@ -643,8 +669,8 @@ public class SynthRangeSliderUI extends BasicRangeSliderUI implements
 	@Override
 	protected int valueForXPosition(int xPos) {
 		int value;
-		int minValue = slider.getMinimum();
-		int maxValue = slider.getMaximum();
+		int minValue = slider.getVisibleMinimum();
+		int maxValue = slider.getVisibleMaximum();
 		int trackLeft = trackRect.x + lowerThumbRect.width / 2 + trackBorder;
 		int trackRight = trackRect.x + trackRect.width - lowerThumbRect.width
 				/ 2 - trackBorder;
@@ -695,8 +721,10 @@ public class SynthRangeSliderUI extends BasicRangeSliderUI implements
 		newInsets.right += compInsets.right;
 		newInsets.top += compInsets.top;
 		newInsets.bottom += compInsets.bottom;
-		if (!newInsets.equals(insetCache)) {
+		if (geometryDeferred || !newInsets.equals(insetCache)) {
+			geometryDeferred = false;
 			insetCache = newInsets;
+			invalidateLayoutCaches();
 			calculateGeometry();
 		}
 	}
@@ -825,6 +853,7 @@ public class SynthRangeSliderUI extends BasicRangeSliderUI implements
 	protected void paint(SynthContext context, Graphics g) {
 		recalculateIfInsetsChanged();
 		recalculateIfOrientationChanged();
+		recalculateIfThumbLocationStale();
 		Rectangle clip = g.getClipBounds();
 
 		if (lastSize == null || !lastSize.equals(slider.getSize())) {
@@ -860,6 +889,10 @@ public class SynthRangeSliderUI extends BasicRangeSliderUI implements
 							valueRect.y, -1);
 		}
 
+		if (slider.getTrackBackdrop() != null && clip.intersects(trackRect)) {
+			paintTrackBackdrop(g);
+		}
+
 		if (slider.getPaintTrack() && clip.intersects(trackRect)) {
 			SynthContext subcontext = getContextByRegion(slider,
 					Region.SLIDER_TRACK);
@@ -1030,13 +1063,17 @@ public class SynthRangeSliderUI extends BasicRangeSliderUI implements
 	/**
 	 * A convience method that will reset the Style of StyleContext if
 	 * necessary.
+	 * <p>
+	 * The previous style is passed separately because a context cannot hold
+	 * a null style: before the first install, the context already holds the
+	 * new style, and comparing with it would skip installing the defaults.
 	 * 
 	 * @return new context containing new style
 	 */
-	private static SynthContext updateStyle(SynthContext context, SynthUI ui) {
+	private static SynthContext updateStyle(SynthContext context,
+			SynthStyle oldStyle) {
 		SynthStyle newStyle = SynthLookAndFeel.getStyle(context.getComponent(),
 				context.getRegion());
-		SynthStyle oldStyle = context.getStyle();
 
 		if (newStyle != oldStyle) {
 			if (oldStyle != null) {
@@ -0,0 +1,57 @@
+package slider;
+
+import java.awt.Graphics;
+import java.awt.Rectangle;
+
+import javax.swing.event.ChangeListener;
+
+/**
+ * Paints behind the track of a range slider, such as the distribution of the
+ * data the slider filters.
+ * <p>
+ * The delegate paints the backdrop before the track, clipped to the track,
+ * in a graphics object of its own. Whether the track itself is painted is
+ * up to {@link javax.swing.JSlider#getPaintTrack}.
+ *
+ * @see RangeSlider#setTrackBackdrop
+ * @author johnchen902
+ */
+public interface TrackBackdrop {
+
+	/**
+	 * Paints the backdrop of {@code slider}.
+	 * <p>
+	 * Positions along the track are linear in the value: a value {@code v}
+	 * is at {@code minPosition + (v - min) * (maxPosition - minPosition) /
+	 * (max - min)}, where {@code min} and {@code max} are the
+	 * {@linkplain RangeSlider#getVisibleMinimum visible minimum} and
+	 * {@linkplain RangeSlider#getVisibleMaximum maximum} of the slider.
+	 *
+	 * @param g
+	 *            the graphics to paint with, clipped to {@code track}
+	 * @param track
+	 *            the bounds of the track
+	 * @param range
+	 *            the part of the track between the thumbs
+	 * @param minPosition
+	 *            the x coordinate of the visible minimum of the slider if
+	 *            it is horizontal, the y coordinate if it is vertical
+	 * @param maxPosition
+	 *            the x or y coordinate of the visible maximum of the slider
+	 */
+	void paint(Graphics g, RangeSlider slider, Rectangle track,
+			Rectangle range, int minPosition, int maxPosition);
+
+	/**
+	 * Adds a listener notified when the backdrop needs to be painted again.
+	 * The listener may be notified on any thread. A
+	 * {@link TrackBackdropEvent} tells the listener that only part of the
+	 * backdrop has changed.
+	 */
+	void addChangeListener(ChangeListener l);
+
+	/**
+	 * Removes a listener added by {@link #addChangeListener}.
+	 */
+	void removeChangeListener(ChangeListener l);
+}
@@ -0,0 +1,42 @@
+package slider;
+
+import javax.swing.event.ChangeEvent;
+
+/**
+ * Notifies that only part of a track backdrop has changed, so that sliders
+ * can repaint that part of the track alone. A plain {@code ChangeEvent} from
+ * a backdrop means that all of it may have changed.
+ *
+ * @see TrackBackdrop#addChangeListener
+ * @author johnchen902
+ */
+@SuppressWarnings("serial")
+public class TrackBackdropEvent extends ChangeEvent {
+
+	private final double fromValue;
+	private final double toValue;
+
+	/**
+	 * Creates an event reporting that the backdrop has changed from
+	 * {@code fromValue} to {@code toValue}, as slider values.
+	 */
+	public TrackBackdropEvent(Object source, double fromValue, double toValue) {
+		super(source);
+		this.fromValue = fromValue;
+		this.toValue = toValue;
+	}
+
+	/**
+	 * Returns the lowest slider value where the backdrop has changed.
+	 */
+	public double getFromValue() {
+		return fromValue;
+	}
+
+	/**
+	 * Returns the highest slider value where the backdrop has changed.
+	 */
+	public double getToValue() {
+		return toValue;
+	}
+}